@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.StreamUtil;
+import com.intellij.openapi.vcs.VcsException;
+import com.ritesh.idea.plugin.util.DiskLruCache;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent, size bounded LRU cache of the diffs between two revisions, stored compressed.
+ * Keys are made of the vcs root and the resolved revisions, whose diff never changes; diffs of the working copy
+ * are never cached.
+ */
+public class DiffCache {
+    private static final Logger LOG = Logger.getInstance(DiffCache.class);
+
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+    private static final String EXTENSION = ".diff.gz";
+
+    /**
+     * Generates a diff on a cache miss
+     */
+    public interface Generator {
+        void generate(OutputStream out) throws VcsException;
+    }
+
+    private static class Holder {
+        private static final DiffCache INSTANCE =
+                new DiffCache(new File(PathManager.getSystemPath(), "review-board/diffs"), DEFAULT_MAX_SIZE);
+    }
+
+    public static DiffCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final DiskLruCache cache;
+
+    public DiffCache(File directory, long maxSize) {
+        cache = new DiskLruCache(directory, maxSize, EXTENSION);
+    }
+
+    public static String key(String vcs, String root, String pathPrefix, String fromRevision, String toRevision) {
+        return vcs + '|' + root + '|' + pathPrefix + '|' + fromRevision + '|' + toRevision;
+    }
+
+    /**
+     * Writes the cached diff to the stream, or lets the generator write it while keeping a compressed copy
+     */
+    public void diff(String key, OutputStream out, Generator generator) throws VcsException {
+        String name = DiskLruCache.name(key, EXTENSION);
+        if (copy(name, out)) {
+            LOG.info("Diff served from cache : " + key);
+            return;
+        }
+
+        File tempFile;
+        CachingStream stream;
+        try {
+            tempFile = cache.createTempFile(name);
+            stream = new CachingStream(out, tempFile);
+        } catch (IOException e) {
+            LOG.warn("Unable to cache diff " + key, e);
+            generator.generate(out);
+            return;
+        }
+        try {
+            try {
+                generator.generate(stream);
+            } finally {
+                stream.closeCopy();
+            }
+            // An empty diff more likely means a failure than no change at all
+            if (stream.copied && stream.count > 0) cache.commit(name, tempFile);
+        } catch (IOException e) {
+            LOG.warn("Unable to cache diff " + key, e);
+        } finally {
+            FileUtil.delete(tempFile);
+        }
+    }
+
+    private boolean copy(String name, OutputStream out) throws VcsException {
+        InputStream in;
+        try {
+            in = cache.open(name);
+            if (in == null) return false;
+        } catch (IOException e) {
+            LOG.warn("Dropping unreadable cache entry " + name, e);
+            return false;
+        }
+        InputStream gzip;
+        try {
+            gzip = new GZIPInputStream(in);
+        } catch (IOException e) {
+            LOG.warn("Dropping unreadable cache entry " + name, e);
+            StreamUtil.closeStream(in);
+            cache.remove(name);
+            return false;
+        }
+        try (InputStream input = gzip) {
+            FileUtil.copy(input, out);
+        } catch (IOException e) {
+            // Part of the diff may have been written already, so there is no falling back to a regeneration
+            cache.remove(name);
+            throw new VcsException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Passes the diff on to the caller while compressing a copy of it into a file. Failing to write the copy
+     * only leaves it incomplete, it never fails the caller.
+     */
+    private static class CachingStream extends OutputStream {
+        private final OutputStream out;
+        private OutputStream copy;
+        private boolean copied = true;
+        private long count;
+
+        CachingStream(OutputStream out, File file) throws IOException {
+            this.out = out;
+            this.copy = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            if (copy == null) return;
+            try {
+                copy.write(b, off, len);
+            } catch (IOException e) {
+                LOG.warn("Unable to write the cached copy of a diff", e);
+                closeCopy();
+                copied = false;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        void closeCopy() {
+            if (copy == null) return;
+            try {
+                copy.close();
+            } catch (IOException e) {
+                copied = false;
+            }
+            copy = null;
+        }
+    }
+}
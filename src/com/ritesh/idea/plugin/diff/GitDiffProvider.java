@@ -19,6 +19,7 @@ package com.ritesh.idea.plugin.diff;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vcs.VcsDataKeys;
 import com.intellij.openapi.vcs.VcsException;
 import com.intellij.openapi.vcs.changes.Change;
@@ -26,16 +27,22 @@ import com.intellij.openapi.vcs.history.VcsRevisionNumber;
 import com.intellij.openapi.vfs.VirtualFile;
 import git4idea.commands.GitCommand;
 import git4idea.commands.GitSimpleHandler;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * @author Ritesh
  */
-public class GitDiffProvider implements IVcsDiffProvider {
+public class GitDiffProvider implements IVcsRootDiffProvider {
 
     private static final Logger LOG = Logger.getInstance(GitDiffProvider.class);
+    private static final Pattern COMMIT_HASH = Pattern.compile("[0-9a-f]{40}");
 
     @Override
     public boolean isFromRevision(Project project, AnActionEvent action) throws VcsException {
@@ -44,47 +51,92 @@ public class GitDiffProvider implements IVcsDiffProvider {
     }
 
     @Override
-    public String generateDiff(Project project, AnActionEvent action) throws VcsException {
-        String diffContent;
+    public void generateDiff(Project project, AnActionEvent action, OutputStream out) throws VcsException {
+        generateDiff(project, project.getBaseDir(), "", action, out);
+    }
+
+    @Override
+    public void generateDiff(Project project, VirtualFile root, String pathPrefix, AnActionEvent action,
+                             OutputStream out) throws VcsException {
         VcsRevisionNumber[] data = action.getData(VcsDataKeys.VCS_REVISION_NUMBERS);
         if (data != null) {
-            diffContent = fromRevisions(project, project.getBaseDir(), data[data.length - 1], data[0]);
+            fromRevisions(project, root, pathPrefix, data[data.length - 1], data[0], out);
         } else {
-            final Change[] changes = action.getData(VcsDataKeys.CHANGES);
-//            if (changes == null) {
-//                return null;
-//            }
-            List<VirtualFile> virtualFiles = new ArrayList<>();
-//            for (Change change : changes) {
-//                if (change.getVirtualFile() != null) {
-//                    virtualFiles.add(change.getVirtualFile());
-//                }
-//            }
-            diffContent = fromHead(project, project.getBaseDir(), virtualFiles);
+            fromHead(project, root, pathPrefix, SelectedChanges.of(action), out);
         }
-        return diffContent;
     }
 
-    private String fromRevisions(Project project, VirtualFile root, VcsRevisionNumber beforeRevisionNumber,
-                                 VcsRevisionNumber afterRevisionNumber) throws VcsException {
+    /**
+     * Diffs between full commit hashes are cached, any other revision could move
+     */
+    private void fromRevisions(final Project project, final VirtualFile root, final String pathPrefix,
+                               VcsRevisionNumber beforeRevisionNumber, VcsRevisionNumber afterRevisionNumber,
+                               OutputStream out) throws VcsException {
         //TODO: First commit results in error
-        GitSimpleHandler handler = new GitSimpleHandler(project, root, GitCommand.DIFF);
-        handler.addParameters(beforeRevisionNumber.asString() + "^");
-        handler.addParameters(afterRevisionNumber.asString());
-        handler.setSilent(true);
-        handler.setStdoutSuppressed(true);
-        LOG.info("Executing git command : " + handler.printableCommandLine());
-        return handler.run();
+        final List<String> parameters =
+                Arrays.asList(beforeRevisionNumber.asString() + "^", afterRevisionNumber.asString());
+        if (!isHash(beforeRevisionNumber.asString()) || !isHash(afterRevisionNumber.asString())) {
+            diff(project, root, pathPrefix, parameters, out);
+            return;
+        }
+        String key = DiffCache.key("git", root.getPath(), pathPrefix, parameters.get(0), parameters.get(1));
+        DiffCache.getInstance().diff(key, out, new DiffCache.Generator() {
+            @Override
+            public void generate(OutputStream out) throws VcsException {
+                diff(project, root, pathPrefix, parameters, out);
+            }
+        });
+    }
+
+    private static boolean isHash(String revision) {
+        return COMMIT_HASH.matcher(revision).matches();
     }
 
-    private String fromHead(Project project, VirtualFile root, List<VirtualFile> virtualFiles) throws VcsException {
-        //TODO: publish only selected changes attribute (need to handle deleted files)
-        GitSimpleHandler handler = new GitSimpleHandler(project, root, GitCommand.DIFF);
-        handler.setSilent(true);
-        handler.setStdoutSuppressed(true);
-        handler.addParameters("HEAD");
-        //handler.addRelativeFiles(virtualFiles);
-        LOG.info("Executing git command : " + handler.printableCommandLine());
-        return handler.run();
+    /**
+     * Diffs the selected changes only, when there are any, in chunks of paths; -M keeps a renamed file together,
+     * both of its names being in the same chunk
+     */
+    private void fromHead(Project project, VirtualFile root, String pathPrefix, @Nullable Change[] changes,
+                          OutputStream out) throws VcsException {
+        if (changes == null) {
+            diff(project, root, pathPrefix, Collections.singletonList("HEAD"), out);
+            return;
+        }
+        for (List<File> chunk : SelectedChanges.chunks(root, changes, SelectedChanges.MAX_PATHS_PER_COMMAND)) {
+            List<String> parameters = new ArrayList<>();
+            parameters.add("-M");
+            parameters.add("HEAD");
+            parameters.add("--");
+            parameters.addAll(SelectedChanges.relativePaths(root, chunk));
+            diff(project, root, pathPrefix, parameters, out);
+        }
+    }
+
+    /**
+     * Lets git write the diff to a file, rather than collecting it from its output, and copies it over
+     */
+    private void diff(Project project, VirtualFile root, String pathPrefix, List<String> parameters, OutputStream out)
+            throws VcsException {
+        File output = null;
+        try {
+            output = FileUtil.createTempFile("git", ".diff", true);
+            GitSimpleHandler handler = new GitSimpleHandler(project, root, GitCommand.DIFF);
+            handler.addParameters("--output=" + output.getPath());
+            if (!pathPrefix.isEmpty()) {
+                handler.addParameters("--src-prefix=a/" + pathPrefix, "--dst-prefix=b/" + pathPrefix);
+            }
+            handler.addParameters(parameters);
+            handler.setSilent(true);
+            handler.setStdoutSuppressed(true);
+            LOG.info("Executing git command : " + handler.printableCommandLine());
+            handler.run();
+            try (InputStream in = new FileInputStream(output)) {
+                FileUtil.copy(in, out);
+            }
+        } catch (IOException e) {
+            throw new VcsException(e);
+        } finally {
+            if (output != null) FileUtil.delete(output);
+        }
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.OutputStream;
+
+/**
+ * Diff provider able to diff any single vcs root of the project
+ */
+public interface IVcsRootDiffProvider extends IVcsDiffProvider {
+    /**
+     * @param pathPrefix prepended to the paths in the diff, which are relative to the root otherwise
+     */
+    void generateDiff(Project project, VirtualFile root, String pathPrefix, AnActionEvent action, OutputStream out)
+            throws VcsException;
+}
@@ -19,15 +19,12 @@ package com.ritesh.idea.plugin.diff;
 import com.intellij.history.integration.patches.PatchCreator;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vcs.VcsDataKeys;
 import com.intellij.openapi.vcs.VcsException;
 import com.intellij.openapi.vcs.changes.Change;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.*;
 import java.util.Arrays;
 
 /**
@@ -40,17 +37,19 @@ public class IdeaDiffProvider implements IVcsDiffProvider {
     }
 
     @Override
-    public String generateDiff(Project project, AnActionEvent action) throws VcsException {
+    public void generateDiff(Project project, AnActionEvent action, OutputStream out) throws VcsException {
+        File tempFile = null;
         try {
             Change[] data = action.getData(VcsDataKeys.CHANGES);
-            File tempFile = File.createTempFile("diff", "patch");
+            tempFile = File.createTempFile("diff", "patch");
             PatchCreator.create(project, Arrays.asList(data), tempFile.getPath(), false, null);
-            byte[] encoded = Files.readAllBytes(Paths.get(tempFile.getPath()));
-            String contents = new String(encoded, StandardCharsets.UTF_8);
-            return contents;
+            try (InputStream in = new FileInputStream(tempFile)) {
+                FileUtil.copy(in, out);
+            }
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new VcsException(e);
+        } finally {
+            if (tempFile != null) FileUtil.delete(tempFile);
         }
-        return null;
     }
 }
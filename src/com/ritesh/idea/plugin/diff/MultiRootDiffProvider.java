@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.VcsDataKeys;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeList;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.vcs.log.CommitId;
+import com.intellij.vcs.log.VcsLog;
+import com.intellij.vcs.log.VcsLogDataKeys;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Diffs every vcs root of the project in parallel and concatenates the diffs into a single patch,
+ * with the paths made relative to the project directory.
+ */
+public class MultiRootDiffProvider implements IVcsDiffProvider {
+    private static final Logger LOG = Logger.getInstance(MultiRootDiffProvider.class);
+
+    public static class Root {
+        final VirtualFile file;
+        final IVcsRootDiffProvider provider;
+
+        public Root(VirtualFile file, IVcsRootDiffProvider provider) {
+            this.file = file;
+            this.provider = provider;
+        }
+    }
+
+    private final List<Root> roots;
+
+    public MultiRootDiffProvider(List<Root> roots) {
+        this.roots = roots;
+    }
+
+    @Override
+    public boolean isFromRevision(Project project, AnActionEvent action) throws VcsException {
+        for (Root root : roots) {
+            if (root.provider.isFromRevision(project, action)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void generateDiff(final Project project, final AnActionEvent action, OutputStream out) throws VcsException {
+        if (isFromRevision(project, action)) {
+            // Selected revisions belong to a single repository
+            Root root = revisionRoot(project, action);
+            root.provider.generateDiff(project, root.file, pathPrefix(project, root.file), action, out);
+            return;
+        }
+
+        final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        Change[] changes = SelectedChanges.of(action);
+        List<File> parts = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (final Root root : roots) {
+                // Roots none of the selected changes belong to are not diffed at all
+                if (changes != null && SelectedChanges.under(root.file, changes).isEmpty()) continue;
+                final File part = FileUtil.createTempFile("review-board", ".diff", true);
+                parts.add(part);
+                futures.add(ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        diff(project, root, action, part, indicator);
+                        return null;
+                    }
+                }));
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                get(futures.get(i));
+                try (InputStream in = new FileInputStream(parts.get(i))) {
+                    FileUtil.copy(in, out);
+                }
+            }
+        } catch (IOException e) {
+            throw new VcsException(e);
+        } finally {
+            // After a failure the other roots are not waited on; their parts are still deleted on exit
+            for (Future<?> future : futures) future.cancel(true);
+            for (File part : parts) FileUtil.delete(part);
+        }
+    }
+
+    private void diff(final Project project, final Root root, final AnActionEvent action, File part,
+                      ProgressIndicator indicator) throws Exception {
+        try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(part))) {
+            if (indicator == null) {
+                root.provider.generateDiff(project, root.file, pathPrefix(project, root.file), action, out);
+                return;
+            }
+            // Keeps the diff cancellable from the indicator of the calling task
+            final VcsException[] failure = new VcsException[1];
+            ProgressManager.getInstance().executeProcessUnderProgress(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        root.provider.generateDiff(project, root.file, pathPrefix(project, root.file), action, out);
+                    } catch (VcsException e) {
+                        failure[0] = e;
+                    }
+                }
+            }, indicator);
+            if (failure[0] != null) throw failure[0];
+        }
+    }
+
+    private static void get(Future<?> future) throws VcsException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof VcsException) throw (VcsException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new VcsException(cause);
+        }
+    }
+
+    /**
+     * The root the selected revisions were committed to, told by the log selection or else by the files involved
+     */
+    private Root revisionRoot(Project project, AnActionEvent action) throws VcsException {
+        ProjectLevelVcsManager vcsManager = ProjectLevelVcsManager.getInstance(project);
+        List<VirtualFile> candidates = new ArrayList<>();
+        VcsLog log = action.getData(VcsLogDataKeys.VCS_LOG);
+        if (log != null) {
+            for (CommitId commit : log.getSelectedCommits()) candidates.add(commit.getRoot());
+        }
+        VirtualFile file = action.getData(VcsDataKeys.VCS_VIRTUAL_FILE);
+        if (file != null) candidates.add(vcsManager.getVcsRootFor(file));
+        Change[] changes = action.getData(VcsDataKeys.CHANGES);
+        if (changes != null) {
+            for (Change change : changes) candidates.add(vcsRootOf(vcsManager, change));
+        }
+        ChangeList[] changeLists = action.getData(VcsDataKeys.CHANGE_LISTS);
+        if (changeLists != null) {
+            for (ChangeList changeList : changeLists) {
+                for (Change change : changeList.getChanges()) candidates.add(vcsRootOf(vcsManager, change));
+            }
+        }
+        for (VirtualFile candidate : candidates) {
+            for (Root root : roots) {
+                if (root.file.equals(candidate)) return root;
+            }
+        }
+        throw new VcsException("Unable to tell which repository the selected revisions belong to");
+    }
+
+    @Nullable
+    private static VirtualFile vcsRootOf(ProjectLevelVcsManager vcsManager, Change change) {
+        ContentRevision revision = change.getAfterRevision() != null ? change.getAfterRevision() : change.getBeforeRevision();
+        return revision == null ? null : vcsManager.getVcsRootFor(revision.getFile());
+    }
+
+    private static String pathPrefix(Project project, VirtualFile root) {
+        VirtualFile baseDir = project.getBaseDir();
+        if (baseDir == null || VfsUtilCore.isAncestor(root, baseDir, false)) return "";
+        String path = VfsUtilCore.getRelativePath(root, baseDir, '/');
+        if (path == null) {
+            LOG.warn("Vcs root " + root.getPath() + " is outside of the project directory, its paths are left as is");
+            return "";
+        }
+        return path.isEmpty() ? "" : path + "/";
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Rewrites the file headers of an svn patch line by line as it passes through, on the raw bytes: paths under
+ * the root are made relative to it, then prefixed. A header path still absolute fails the write, since the server
+ * could not apply the patch and the path would leak the local file system layout. Only the current line is held.
+ */
+class PatchHeaderStream extends FilterOutputStream {
+    private static final byte[] INDEX_HEADER = "Index: ".getBytes(CharsetToolkit.UTF8_CHARSET);
+    private static final byte[] OLD_FILE_HEADER = "--- ".getBytes(CharsetToolkit.UTF8_CHARSET);
+    private static final byte[] NEW_FILE_HEADER = "+++ ".getBytes(CharsetToolkit.UTF8_CHARSET);
+    private static final byte[] HUNK_HEADER = "@@".getBytes(CharsetToolkit.UTF8_CHARSET);
+
+    private final byte[] rootPath;
+    private final byte[] prefix;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private boolean inHeader;
+
+    /**
+     * @param rootPath system independent path of the root, whose paths get made relative
+     * @param prefix   prepended to every relative path, may be empty
+     */
+    PatchHeaderStream(OutputStream out, String rootPath, String prefix) {
+        super(out);
+        this.rootPath = (rootPath.endsWith("/") ? rootPath : rootPath + '/').getBytes(CharsetToolkit.UTF8_CHARSET);
+        this.prefix = prefix.getBytes(CharsetToolkit.UTF8_CHARSET);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        line.write(b);
+        if (b == '\n') writeLine();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int start = off;
+        for (int i = off; i < off + len; i++) {
+            if (b[i] == '\n') {
+                line.write(b, start, i + 1 - start);
+                writeLine();
+                start = i + 1;
+            }
+        }
+        line.write(b, start, off + len - start);
+    }
+
+    /**
+     * Writes out the last line, which may lack its line feed, leaving the underlying stream open
+     */
+    @Override
+    public void close() throws IOException {
+        if (line.size() > 0) writeLine();
+        out.flush();
+    }
+
+    private void writeLine() throws IOException {
+        byte[] bytes = line.toByteArray();
+        line.reset();
+        int end = bytes.length;
+
+        int pathStart = -1;
+        if (startsWith(bytes, 0, INDEX_HEADER)) {
+            inHeader = true;
+            pathStart = INDEX_HEADER.length;
+        } else if (inHeader && (startsWith(bytes, 0, OLD_FILE_HEADER)
+                || startsWith(bytes, 0, NEW_FILE_HEADER))) {
+            pathStart = OLD_FILE_HEADER.length;
+        } else if (startsWith(bytes, 0, HUNK_HEADER)) {
+            inHeader = false;
+        }
+        if (pathStart < 0 || pathStart >= end) {
+            out.write(bytes, 0, end);
+            return;
+        }
+
+        int pathEnd = startsWith(bytes, pathStart, rootPath) ? pathStart + rootPath.length : pathStart;
+        if (isAbsolute(bytes, pathEnd, end)) {
+            throw new IOException("svn diff printed an absolute path : "
+                    + new String(bytes, CharsetToolkit.UTF8_CHARSET).trim());
+        }
+        out.write(bytes, 0, pathStart);
+        out.write(prefix);
+        out.write(bytes, pathEnd, end - pathEnd);
+    }
+
+    /**
+     * Whether the path starting at the offset is rooted, either at / or at a Windows drive
+     */
+    private static boolean isAbsolute(byte[] bytes, int pathStart, int end) {
+        if (pathStart < end && (bytes[pathStart] == '/' || bytes[pathStart] == '\\')) return true;
+        return end - pathStart >= 3 && Character.isLetter(bytes[pathStart]) && bytes[pathStart + 1] == ':'
+                && (bytes[pathStart + 2] == '/' || bytes[pathStart + 2] == '\\');
+    }
+
+    private static boolean startsWith(byte[] bytes, int start, byte[] prefix) {
+        if (bytes.length - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[start + i] != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -16,21 +16,24 @@
 
 package com.ritesh.idea.plugin.diff;
 
-import com.google.common.io.CharStreams;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vcs.AbstractVcs;
 import com.intellij.openapi.vcs.VcsDataKeys;
 import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
 import com.intellij.openapi.vcs.changes.ChangeList;
 import com.intellij.openapi.vcs.history.VcsRevisionNumber;
 import com.intellij.openapi.vcs.versionBrowser.CommittedChangeList;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.ritesh.idea.plugin.util.ProcessRunner;
 import org.jetbrains.idea.svn.SvnVcs;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -77,20 +80,28 @@ public class RbToolsDiffProvider implements IVcsDiffProvider {
     }
 
     @Override
-    public String generateDiff(Project project, AnActionEvent action) throws VcsException {
+    public void generateDiff(Project project, AnActionEvent action, OutputStream out) throws VcsException {
         VcsRevision revision = revision(project, action);
         List<String> options = new ArrayList<>();
         try {
             if (vcs instanceof SvnVcs) {
                 options.addAll(Arrays.asList("--svn-show-copies-as-adds", "y"));
             }
-            return generateDiff(revision, project.getBaseDir().getPath(), options);
+            Change[] changes = SelectedChanges.of(action);
+            if (revision == null && changes != null) {
+                VirtualFile baseDir = project.getBaseDir();
+                for (String path : SelectedChanges.relativePaths(baseDir, SelectedChanges.under(baseDir, changes))) {
+                    options.addAll(Arrays.asList("--include", path));
+                }
+            }
+            generateDiff(revision, project.getBaseDir().getPath(), options, out);
         } catch (IOException e) {
             throw new VcsException(e);
         }
     }
 
-    private String generateDiff(VcsRevision revision, String rootPath, List<String> additionalOptions) throws IOException {
+    private void generateDiff(VcsRevision revision, String rootPath, List<String> additionalOptions, OutputStream out)
+            throws IOException {
         List<String> commands = new ArrayList<>();
         String processPath = (rbtPath == null ? "rbt" : rbtPath);
         commands.addAll(Arrays.asList(processPath, "diff", "--server", url, "--username", userName, "--password", password));
@@ -106,16 +117,7 @@ public class RbToolsDiffProvider implements IVcsDiffProvider {
 
         ProcessBuilder builder = new ProcessBuilder(commands);
         builder.directory(new File(rootPath));
-        builder.redirectErrorStream(true);
-        Process process = builder.start();
-
-        String stdInput = CharStreams.toString(new InputStreamReader(process.getInputStream()));
-        String stdErrorInput = CharStreams.toString(new InputStreamReader(process.getErrorStream()));
-        if (stdErrorInput.trim().isEmpty()) {
-            return stdInput;
-        } else {
-            throw new RuntimeException("Error : " + stdErrorInput);
-        }
+        new ProcessRunner().run(builder, out, ProgressManager.getInstance().getProgressIndicator());
     }
 
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.VcsDataKeys;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The local changes picked for a review, either selected one by one or through their changelist.
+ * Both sides of a change are kept so that deleted and renamed files make it into the diff.
+ */
+public final class SelectedChanges {
+    /**
+     * Paths per command line, keeping it under the limits of the platform
+     */
+    static final int MAX_PATHS_PER_COMMAND = 200;
+
+    private SelectedChanges() {
+    }
+
+    /**
+     * @return the selected changes, or null when the whole working copy is to be diffed
+     */
+    @Nullable
+    public static Change[] of(AnActionEvent action) {
+        Change[] changes = action.getData(VcsDataKeys.CHANGES);
+        return changes == null || changes.length == 0 ? null : changes;
+    }
+
+    /**
+     * Files touched by the changes under the given root, a renamed file being listed under both of its names
+     */
+    static List<File> under(VirtualFile root, Change[] changes) {
+        File rootFile = new File(root.getPath());
+        Set<File> files = new LinkedHashSet<>();
+        for (Change change : changes) {
+            add(files, rootFile, change.getBeforeRevision());
+            add(files, rootFile, change.getAfterRevision());
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Files touched by the changes under the given root, in chunks of about the given size. Both names of a renamed
+     * file land in the same chunk, so that a diff run per chunk still sees the rename.
+     */
+    static List<List<File>> chunks(VirtualFile root, Change[] changes, int maxFiles) {
+        File rootFile = new File(root.getPath());
+        Set<File> seen = new LinkedHashSet<>();
+        List<List<File>> groups = new ArrayList<>();
+        for (Change change : changes) {
+            Set<File> group = new LinkedHashSet<>();
+            add(group, rootFile, change.getBeforeRevision());
+            add(group, rootFile, change.getAfterRevision());
+            group.removeAll(seen);
+            seen.addAll(group);
+            if (!group.isEmpty()) groups.add(new ArrayList<>(group));
+        }
+        return partition(groups, maxFiles);
+    }
+
+    /**
+     * Packs the groups into chunks of at most the given size, never splitting a group; a group larger than the
+     * size gets a chunk of its own
+     */
+    static <T> List<List<T>> partition(List<List<T>> groups, int maxSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>();
+        for (List<T> group : groups) {
+            if (!chunk.isEmpty() && chunk.size() + group.size() > maxSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.addAll(group);
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+        return chunks;
+    }
+
+    /**
+     * Paths of the files relative to the root, with forward slashes
+     */
+    static List<String> relativePaths(VirtualFile root, List<File> files) {
+        return relativePaths(new File(root.getPath()), files);
+    }
+
+    static List<String> relativePaths(File root, List<File> files) {
+        List<String> paths = new ArrayList<>(files.size());
+        for (File file : files) {
+            paths.add(FileUtil.toSystemIndependentName(FileUtil.getRelativePath(root, file)));
+        }
+        return paths;
+    }
+
+    private static void add(Set<File> files, File root, @Nullable ContentRevision revision) {
+        if (revision == null) return;
+        File file = revision.getFile().getIOFile();
+        if (FileUtil.isAncestor(root, file, false)) files.add(file);
+    }
+}
@@ -19,12 +19,15 @@ package com.ritesh.idea.plugin.diff;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vcs.VcsDataKeys;
 import com.intellij.openapi.vcs.VcsException;
 import com.intellij.openapi.vcs.changes.Change;
 import com.intellij.openapi.vcs.changes.ChangeList;
 import com.intellij.openapi.vcs.versionBrowser.CommittedChangeList;
+import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.svn.SvnVcs;
 import org.jetbrains.idea.svn.api.BaseSvnClient;
 import org.jetbrains.idea.svn.commandLine.Command;
@@ -32,11 +35,14 @@ import org.jetbrains.idea.svn.commandLine.CommandExecutor;
 import org.jetbrains.idea.svn.commandLine.SvnCommandName;
 import org.jetbrains.idea.svn.history.LogEntry;
 import org.jetbrains.idea.svn.history.LogEntryConsumer;
+import org.jetbrains.idea.svn.info.Info;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc2.SvnTarget;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -44,7 +50,7 @@ import java.util.List;
 /**
  * @author ritesh
  */
-public class SvnDiffProvider extends BaseSvnClient implements IVcsDiffProvider {
+public class SvnDiffProvider extends BaseSvnClient implements IVcsRootDiffProvider {
 
     private static final Logger LOG = Logger.getInstance(SvnDiffProvider.class);
 
@@ -59,21 +65,47 @@ public class SvnDiffProvider extends BaseSvnClient implements IVcsDiffProvider {
     }
 
     @Override
-    public String generateDiff(Project project, AnActionEvent action) throws VcsException {
-        String diffContent;
+    public void generateDiff(Project project, AnActionEvent action, OutputStream out) throws VcsException {
+        generateDiff(project, project.getBaseDir(), "", action, out);
+    }
+
+    @Override
+    public void generateDiff(Project project, VirtualFile root, String pathPrefix, AnActionEvent action,
+                             OutputStream out) throws VcsException {
         if (isFromRevision(project, action)) {
             ChangeList[] data = action.getData(VcsDataKeys.CHANGE_LISTS);
-            diffContent = fromRevisions(project, project.getBaseDir(), ((CommittedChangeList) data[data.length - 1]).getNumber(),
-                    ((CommittedChangeList) data[0]).getNumber());
+            fromRevisions(project, root, pathPrefix, ((CommittedChangeList) data[data.length - 1]).getNumber(),
+                    ((CommittedChangeList) data[0]).getNumber(), out);
         } else {
-            final Change[] changes = action.getData(VcsDataKeys.CHANGES);
-            diffContent = fromHead(project, project.getBaseDir(), changes);
+            fromHead(project, root, pathPrefix, SelectedChanges.of(action), out);
         }
-        return diffContent;
     }
 
-    private String fromRevisions(Project project, VirtualFile root, long beforeRevisionNumber,
-                                 long afterRevisionNumber) throws VcsException {
+    /**
+     * Revision numbers are immutable, so the diff is cached and a cache hit skips the log lookup as well.
+     * Revision numbers only mean something within a repository, so the key is the repository and the url of the
+     * root in it rather than the local path, which may hold another checkout later on
+     */
+    private void fromRevisions(final Project project, final VirtualFile root, final String pathPrefix,
+                               final long beforeRevisionNumber, final long afterRevisionNumber, OutputStream out)
+            throws VcsException {
+        Info info = SvnVcs.getInstance(project).getInfo(root);
+        if (info == null || info.getRepositoryUUID() == null || info.getURL() == null) {
+            diffRevisions(project, root, pathPrefix, beforeRevisionNumber, afterRevisionNumber, out);
+            return;
+        }
+        String key = DiffCache.key("svn", info.getRepositoryUUID() + '|' + info.getURL(), pathPrefix,
+                String.valueOf(beforeRevisionNumber), String.valueOf(afterRevisionNumber));
+        DiffCache.getInstance().diff(key, out, new DiffCache.Generator() {
+            @Override
+            public void generate(OutputStream out) throws VcsException {
+                diffRevisions(project, root, pathPrefix, beforeRevisionNumber, afterRevisionNumber, out);
+            }
+        });
+    }
+
+    private void diffRevisions(Project project, VirtualFile root, String pathPrefix, long beforeRevisionNumber,
+                               long afterRevisionNumber, OutputStream out) throws VcsException {
         SvnVcs svnVcs = SvnVcs.getInstance(project);
         SvnTarget svnTarget = SvnTarget.fromFile(new File(root.getPath()));
 
@@ -93,34 +125,63 @@ public class SvnDiffProvider extends BaseSvnClient implements IVcsDiffProvider {
         command.put(parameters);
         LOG.info("Executing svn command : Parameters : " + parameters + " ,target :" + svnTarget);
         CommandExecutor commandExecutor = newRuntime(svnVcs).runWithAuthenticationAttempt(command);
-        String output = commandExecutor.getBinaryOutput().toString();
-        return output;
+        write(commandExecutor, root, pathPrefix, out);
     }
 
 
-    private String fromHead(Project project, VirtualFile root, Change[] changes) throws VcsException {
-        //TODO: publish only selected changes attribute (need to handle deleted files)
-        SvnVcs svnVcs = SvnVcs.getInstance(project);
+    /**
+     * Diffs the selected changes only, when there are any. Their files are handed over through a targets file,
+     * which has no length limit, while the root stays the target at depth empty so that it adds nothing on its own
+     */
+    private void fromHead(Project project, VirtualFile root, String pathPrefix, @Nullable Change[] changes,
+                          OutputStream out) throws VcsException {
+        List<File> files = changes == null ? null : SelectedChanges.under(root, changes);
+        if (files != null && files.isEmpty()) return;
 
+        SvnVcs svnVcs = SvnVcs.getInstance(project);
         SvnTarget svnTarget = SvnTarget.fromFile(new File(root.getPath()));
-        List<String> parameters = new ArrayList<>();
-        /*for (Change change : changes) {
-            if (change.getVirtualFile() != null) {
-                String path = new File(root.getPath()).toURI()
-                        .relativize(new File(change.getVirtualFile().getPath()).toURI()).getPath();
-                parameters.add(path);
+        File targets = null;
+        try {
+            List<String> parameters = new ArrayList<>();
+            if (files != null) {
+                targets = FileUtil.createTempFile("svn", ".targets", true);
+                // Relative to the working directory, as svn prints the paths the way they were given
+                StringBuilder content = new StringBuilder();
+                for (String path : SelectedChanges.relativePaths(root, files)) {
+                    content.append(path).append('\n');
+                }
+                FileUtil.writeToFile(targets, content.toString().getBytes(CharsetToolkit.UTF8_CHARSET));
+                parameters.addAll(Arrays.asList("--depth", "empty", "--targets", targets.getPath()));
             }
-        }*/
-        parameters.add("-r");
-        parameters.add("HEAD");
-        parameters.add("--patch-compatible");
-        Command command = new Command(SvnCommandName.diff);
-        command.setWorkingDirectory(new File(root.getPath()));
-        command.setTarget(svnTarget);
-        command.put(parameters);
-        LOG.info("Executing svn command : Parameters : " + parameters + " ,target :" + svnTarget);
-        CommandExecutor commandExecutor = newRuntime(svnVcs).runWithAuthenticationAttempt(command);
-        String output = commandExecutor.getBinaryOutput().toString();
-        return output;
+            parameters.add("-r");
+            parameters.add("HEAD");
+            parameters.add("--patch-compatible");
+            Command command = new Command(SvnCommandName.diff);
+            command.setWorkingDirectory(new File(root.getPath()));
+            command.setTarget(svnTarget);
+            command.put(parameters);
+            LOG.info("Executing svn command : Parameters : " + parameters + " ,target :" + svnTarget);
+            CommandExecutor commandExecutor = newRuntime(svnVcs).runWithAuthenticationAttempt(command);
+            write(commandExecutor, root, pathPrefix, out);
+        } catch (IOException e) {
+            throw new VcsException(e);
+        } finally {
+            if (targets != null) FileUtil.delete(targets);
+        }
+    }
+
+    /**
+     * svn4idea collects the output itself, running svn with the credentials it manages, so the diff of an svn root
+     * is held in memory once; it is handed over from that buffer without any further copy, the headers rewritten
+     * on the way
+     */
+    private static void write(CommandExecutor commandExecutor, VirtualFile root, String pathPrefix, OutputStream out)
+            throws VcsException {
+        try (PatchHeaderStream stream = new PatchHeaderStream(out,
+                FileUtil.toSystemIndependentName(root.getPath()), pathPrefix)) {
+            commandExecutor.getBinaryOutput().writeTo(stream);
+        } catch (IOException e) {
+            throw new VcsException(e);
+        }
     }
 }
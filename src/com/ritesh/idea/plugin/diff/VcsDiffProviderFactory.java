@@ -19,23 +19,41 @@ package com.ritesh.idea.plugin.diff;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vcs.AbstractVcs;
 import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.VcsRoot;
 import com.ritesh.idea.plugin.state.Configuration;
 import git4idea.GitVcs;
 import org.jetbrains.idea.svn.SvnVcs;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author ritesh
  */
 public class VcsDiffProviderFactory {
     public static IVcsDiffProvider getVcsDiffProvider(Project project, Configuration configuration) {
-        AbstractVcs vcsFor = ProjectLevelVcsManager.getInstance(project).getVcsFor(project.getProjectFile());
+        ProjectLevelVcsManager vcsManager = ProjectLevelVcsManager.getInstance(project);
+        AbstractVcs vcsFor = vcsManager.getVcsFor(project.getProjectFile());
         if (configuration.useRbTools == Boolean.TRUE) {
             return new RbToolsDiffProvider(configuration.url, configuration.username, configuration.password,
                     configuration.rbtPath, vcsFor);
         }
-        if (vcsFor instanceof SvnVcs) {
+
+        List<MultiRootDiffProvider.Root> roots = new ArrayList<>();
+        for (VcsRoot root : vcsManager.getAllVcsRoots()) {
+            IVcsRootDiffProvider provider = getRootDiffProvider(root.getVcs());
+            if (provider != null && root.getPath() != null) {
+                roots.add(new MultiRootDiffProvider.Root(root.getPath(), provider));
+            }
+        }
+        if (roots.isEmpty()) return null;
+        return new MultiRootDiffProvider(roots);
+    }
+
+    private static IVcsRootDiffProvider getRootDiffProvider(AbstractVcs vcs) {
+        if (vcs instanceof SvnVcs) {
             return new SvnDiffProvider();
-        } else if (vcsFor instanceof GitVcs) {
+        } else if (vcs instanceof GitVcs) {
             return new GitDiffProvider();
         }
         return null;
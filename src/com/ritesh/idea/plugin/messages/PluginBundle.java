@@ -35,6 +35,8 @@ public class PluginBundle {
     public static final String NOTIFICATION_TITLE = "reviewboard.notification.title";
     public static final String UNSUPPORTED_VCS_TITLE = "reviewboard.unsupported.vcs.title";
     public static final String UNSUPPORTED_VCS_MESSAGE = "reviewboard.unsupported.vcs.message";
+    public static final String NEW_REVIEW_TITLE = "reviewboard.notification.review.new";
+    public static final String UPDATED_REVIEW_TITLE = "reviewboard.notification.review.updated";
 
     public static String message(@NotNull String key, @NotNull Object... params) {
         return getBundle().getString(key);
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.util.ConcurrencyUtil;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-ahead journal of the review comments not yet published, so they survive an IDE crash or a failed publish.
+ * Records are appended by a background writer, which syncs each batch of pending records to disk with one fsync;
+ * callers never wait on the disk. The journal is rewritten with only the live comments once a review is published
+ * or discarded.
+ */
+public class CommentJournal implements Disposable {
+    private static final Logger LOG = Logger.getInstance(CommentJournal.class);
+    private static final Gson GSON = new GsonBuilder().create();
+
+    private static final String ADD = "add";
+    private static final String DELETE = "delete";
+
+    public static CommentJournal getInstance(Project project) {
+        return ServiceManager.getService(project, CommentJournal.class);
+    }
+
+    private final File file;
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(ConcurrencyUtil.newNamedThreadFactory("ReviewBoard comment journal"));
+    // Lines to append, and snapshots to compact to, in the order they were made
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    //Map of review id and its unpublished comments by journal key
+    private final Map<String, Map<String, Entry>> reviews = new HashMap<>();
+    private final Map<Review.File.Comment, String> keys = new IdentityHashMap<>();
+
+    public CommentJournal(Project project) {
+        this(new File(PathManager.getSystemPath(), "review-board/journal/" + project.getLocationHash() + ".log"));
+    }
+
+    CommentJournal(File file) {
+        this.file = file;
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LOG.warn("Unable to create journal directory " + directory);
+        }
+        if (replay()) compact();
+    }
+
+    public synchronized void added(String reviewId, String fileId, Review.File.Comment comment) {
+        String key = UUID.randomUUID().toString();
+        keys.put(comment, key);
+        Map<String, Entry> entries = reviews.get(reviewId);
+        if (entries == null) reviews.put(reviewId, entries = new LinkedHashMap<>());
+        entries.put(key, new Entry(fileId, comment));
+        append(Record.added(reviewId, key, fileId, comment));
+    }
+
+    public synchronized void deleted(String reviewId, Review.File.Comment comment) {
+        String key = keys.remove(comment);
+        Map<String, Entry> entries = reviews.get(reviewId);
+        if (key == null || entries == null || entries.remove(key) == null) return;
+        if (entries.isEmpty()) reviews.remove(reviewId);
+        append(new Record(DELETE, reviewId, key));
+    }
+
+    /**
+     * Forgets the comments of a review, once published or discarded, and compacts the journal
+     */
+    public synchronized void clear(String reviewId) {
+        Map<String, Entry> entries = reviews.remove(reviewId);
+        if (entries == null) return;
+        for (Entry entry : entries.values()) keys.remove(entry.comment);
+        compact();
+    }
+
+    /**
+     * @return map of file id and unpublished comments of the review; the comments are not bound to a file yet
+     */
+    public synchronized Map<String, List<Review.File.Comment>> comments(String reviewId) {
+        Map<String, List<Review.File.Comment>> result = new HashMap<>();
+        Map<String, Entry> entries = reviews.get(reviewId);
+        if (entries == null) return result;
+        for (Entry entry : entries.values()) {
+            List<Review.File.Comment> comments = result.get(entry.fileId);
+            if (comments == null) result.put(entry.fileId, comments = new ArrayList<>());
+            comments.add(entry.comment);
+        }
+        return result;
+    }
+
+    @Override
+    public void dispose() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(Record record) {
+        enqueue(GSON.toJson(record));
+    }
+
+    private void enqueue(Object operation) {
+        if (writer.isShutdown()) return;
+        pending.add(operation);
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flushScheduled.set(false);
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes every pending record with a single sync; runs on the writer thread only
+     */
+    @SuppressWarnings("unchecked")
+    private void flush() {
+        List<String> lines = new ArrayList<>();
+        Object operation;
+        while ((operation = pending.poll()) != null) {
+            if (operation instanceof String) {
+                lines.add((String) operation);
+            } else {
+                // The snapshot already includes every line queued before it
+                lines.clear();
+                rewrite((List<String>) operation);
+            }
+        }
+        if (lines.isEmpty()) return;
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, CharsetToolkit.UTF8_CHARSET));
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            LOG.warn("Unable to write comment journal " + file, e);
+        }
+    }
+
+    /**
+     * Rewrites the journal with one record per live comment
+     */
+    private synchronized void compact() {
+        List<String> live = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Entry>> review : reviews.entrySet()) {
+            for (Map.Entry<String, Entry> entry : review.getValue().entrySet()) {
+                Entry value = entry.getValue();
+                live.add(GSON.toJson(Record.added(review.getKey(), entry.getKey(), value.fileId, value.comment)));
+            }
+        }
+        enqueue(live);
+    }
+
+    private void rewrite(List<String> lines) {
+        try {
+            File temp = File.createTempFile("journal", ".tmp", file.getParentFile());
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, CharsetToolkit.UTF8_CHARSET));
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                writer.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to compact comment journal " + file, e);
+        }
+    }
+
+    /**
+     * @return true when the journal holds records that are no longer needed
+     */
+    private boolean replay() {
+        if (!file.isFile()) return false;
+        int records = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), CharsetToolkit.UTF8_CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Record record;
+                try {
+                    record = GSON.fromJson(line, Record.class);
+                } catch (JsonParseException e) {
+                    // Torn write of the last batch before a crash
+                    LOG.info("Skipping unreadable comment journal record");
+                    continue;
+                }
+                if (record == null || record.op == null || record.review == null) continue;
+                records++;
+                apply(record);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read comment journal " + file, e);
+        }
+        int live = 0;
+        for (Map<String, Entry> entries : reviews.values()) live += entries.size();
+        return records > live;
+    }
+
+    private void apply(Record record) {
+        Map<String, Entry> entries = reviews.get(record.review);
+        switch (record.op) {
+            case ADD:
+                Review.File.Comment comment = new Review.File.Comment();
+                comment.firstLine = record.firstLine;
+                comment.numberOfLines = record.numberOfLines;
+                comment.text = record.text;
+                comment.issueOpened = record.issueOpened;
+                if (entries == null) reviews.put(record.review, entries = new LinkedHashMap<>());
+                entries.put(record.key, new Entry(record.fileId, comment));
+                keys.put(comment, record.key);
+                break;
+            case DELETE:
+                if (entries == null) break;
+                Entry removed = entries.remove(record.key);
+                if (removed != null) keys.remove(removed.comment);
+                if (entries.isEmpty()) reviews.remove(record.review);
+                break;
+        }
+    }
+
+    private static class Entry {
+        final String fileId;
+        final Review.File.Comment comment;
+
+        Entry(String fileId, Review.File.Comment comment) {
+            this.fileId = fileId;
+            this.comment = comment;
+        }
+    }
+
+    private static class Record {
+        String op;
+        String review;
+        String key;
+        String fileId;
+        int firstLine;
+        int numberOfLines;
+        String text;
+        boolean issueOpened;
+
+        Record(String op, String review, String key) {
+            this.op = op;
+            this.review = review;
+            this.key = key;
+        }
+
+        static Record added(String review, String key, String fileId, Review.File.Comment comment) {
+            Record record = new Record(ADD, review, key);
+            record.fileId = fileId;
+            record.firstLine = comment.firstLine;
+            record.numberOfLines = comment.numberOfLines;
+            record.text = comment.text;
+            record.issueOpened = comment.issueOpened;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts the diff comments of a draft review on the given executor, whose threads bound the requests in flight.
+ * A comment whose request never reached the server is retried on its own; anything else fails the whole batch.
+ */
+class CommentPublisher {
+    static final int DEFAULT_WINDOW = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    private final ReviewBoardClient client;
+    private final ExecutorService executor;
+
+    CommentPublisher(ReviewBoardClient client, ExecutorService executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns once every comment has been created on the server
+     */
+    void publish(final String reviewRequestId, final String reviewId, List<Review.File.Comment> comments,
+                 final ReviewDataProvider.Progress progress) throws Exception {
+        if (comments.isEmpty()) return;
+
+        final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        final AtomicInteger done = new AtomicInteger();
+        final int total = comments.size();
+
+        List<Future<?>> futures = new ArrayList<>(total);
+        try {
+            for (final Review.File.Comment comment : comments) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        createWithRetry(reviewRequestId, reviewId, comment, indicator);
+                        progress.progress("Updating comment", (float) done.incrementAndGet() / total);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+                }
+            }
+        } finally {
+            // Whatever is left after a failure or cancellation must not reach the server
+            for (Future<?> future : futures) future.cancel(true);
+        }
+    }
+
+    private void createWithRetry(final String reviewRequestId, final String reviewId, final Review.File.Comment comment,
+                                 ProgressIndicator indicator) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            if (indicator != null) indicator.checkCanceled();
+            try {
+                if (indicator == null) {
+                    create(reviewRequestId, reviewId, comment);
+                } else {
+                    // Makes the request abortable from the indicator of the publishing task
+                    final Exception[] failure = new Exception[1];
+                    ProgressManager.getInstance().executeProcessUnderProgress(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                create(reviewRequestId, reviewId, comment);
+                            } catch (Exception e) {
+                                failure[0] = e;
+                            }
+                        }
+                    }, indicator);
+                    if (failure[0] != null) throw failure[0];
+                }
+                return;
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS || !isTransient(e)) throw e;
+                Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            }
+        }
+    }
+
+    private void create(String reviewRequestId, String reviewId, Review.File.Comment comment) throws Exception {
+        client.createDiffComment(reviewRequestId, reviewId, comment.file.fileId, comment.firstLine,
+                comment.numberOfLines, comment.text, comment.issueOpened);
+    }
+
+    /**
+     * Only failures before the request was sent: the connection could not be made, or no pooled connection could be
+     * leased ({@link org.apache.http.conn.ConnectionPoolTimeoutException} being a connect timeout). A response that
+     * never came, e.g. {@link org.apache.http.NoHttpResponseException}, may follow a comment the server created,
+     * so a retry could post it twice.
+     */
+    static boolean isTransient(Exception e) {
+        return e instanceof ConnectException || e instanceof ConnectTimeoutException;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.intellij.util.ConcurrencyUtil;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads file contents of a review server with a bounded number of connections.
+ * Downloads the user is waiting on run before background ones; everything queued can be dropped at once
+ * when the user moves to another review.
+ */
+public class ContentDownloadScheduler {
+    /**
+     * Overridable with the {@code reviewboard.download.concurrency} system property
+     */
+    public static final int DEFAULT_CONCURRENCY = Math.max(1, Integer.getInteger("reviewboard.download.concurrency", 4));
+
+    public enum Priority {
+        FOREGROUND, BACKGROUND
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, DownloadTask> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ContentDownloadScheduler() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    public ContentDownloadScheduler(int concurrency) {
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), ConcurrencyUtil.newNamedThreadFactory("ReviewBoard content download"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the download, or returns the one already queued under the same key
+     */
+    public Future<String> submit(String key, Priority priority, Callable<String> download) {
+        DownloadTask task = new DownloadTask(key, priority, sequence.incrementAndGet(), download);
+        DownloadTask existing = tasks.putIfAbsent(key, task);
+        if (existing != null) {
+            prioritize(key, priority);
+            return existing;
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Moves a still queued download ahead of the lower priority ones
+     */
+    public void prioritize(String key, Priority priority) {
+        DownloadTask task = tasks.get(key);
+        if (task == null || task.priority.compareTo(priority) <= 0) return;
+        if (executor.getQueue().remove(task)) {
+            task.priority = priority;
+            executor.execute(task);
+        }
+    }
+
+    public void cancelAll() {
+        for (DownloadTask task : tasks.values()) {
+            task.cancel(true);
+            executor.remove(task);
+        }
+        tasks.clear();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private class DownloadTask extends FutureTask<String> implements Comparable<DownloadTask> {
+        private final String key;
+        private final long sequence;
+        private volatile Priority priority;
+
+        DownloadTask(String key, Priority priority, long sequence, Callable<String> download) {
+            super(download);
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        protected void done() {
+            tasks.remove(key, this);
+        }
+
+        @Override
+        public int compareTo(DownloadTask o) {
+            int result = priority.compareTo(o.priority);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+}
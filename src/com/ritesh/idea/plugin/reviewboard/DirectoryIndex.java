@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.ritesh.idea.plugin.reviewboard.model.RBGroupList;
+import com.ritesh.idea.plugin.reviewboard.model.RBUserList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local prefix index of all users and groups of the server, for completion without a request per keystroke.
+ * Loaded page by page in background once started and refreshed periodically; lookups never wait for a load,
+ * they get no answer until the first one completed.
+ */
+class DirectoryIndex {
+    private static final Logger LOG = Logger.getInstance(DirectoryIndex.class);
+
+    private static final long REFRESH_INTERVAL_MINUTES = 30;
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_TYPOS = 1;
+
+    private final ReviewBoardClient client;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile PrefixIndex users;
+    private volatile PrefixIndex groups;
+    private ScheduledFuture<?> refresher;
+
+    DirectoryIndex(ReviewBoardClient client) {
+        this.client = client;
+    }
+
+    synchronized void start() {
+        if (refresher != null) return;
+        refresher = JobScheduler.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                });
+            }
+        }, 0, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    synchronized void stop() {
+        if (refresher != null) refresher.cancel(false);
+    }
+
+    /**
+     * @return user names matching the prefix, or null when the index has no match and the server is to be asked
+     */
+    @Nullable
+    List<String> users(String prefix, int limit) {
+        return lookup(users, prefix, limit);
+    }
+
+    /**
+     * @return group names matching the prefix, or null when the index has no match and the server is to be asked
+     */
+    @Nullable
+    List<String> groups(String prefix, int limit) {
+        return lookup(groups, prefix, limit);
+    }
+
+    private static List<String> lookup(PrefixIndex index, String prefix, int limit) {
+        if (index == null) return null;
+        List<String> result = index.prefix(prefix, limit);
+        if (result.isEmpty()) result = index.fuzzy(prefix, MAX_TYPOS, limit);
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Rebuilds both indexes off the current ones, which keep answering until replaced; a failed load keeps them
+     */
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            long started = System.currentTimeMillis();
+            users = loadUsers();
+            groups = loadGroups();
+            LOG.info(String.format("Indexed %d users and %d groups in %d ms", users.size(), groups.size(),
+                    System.currentTimeMillis() - started));
+        } catch (Exception e) {
+            LOG.info("Loading users and groups failed : " + e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private PrefixIndex loadUsers() throws Exception {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        int start = 0;
+        while (true) {
+            RBUserList page = client.userListApi(start, PAGE_SIZE);
+            if (page.users == null || page.users.length == 0) break;
+            for (RBUserList.RBUser user : page.users) {
+                builder.add(user.username, user.username, user.first_name, user.last_name, user.fullname);
+            }
+            start += page.users.length;
+            if (start >= page.total_results) break;
+        }
+        return builder.build();
+    }
+
+    private PrefixIndex loadGroups() throws Exception {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        int start = 0;
+        while (true) {
+            RBGroupList page = client.groupListApi(start, PAGE_SIZE);
+            if (page.groups == null || page.groups.length == 0) break;
+            for (RBGroupList.Group group : page.groups) {
+                builder.add(group.name, group.name, group.display_name);
+            }
+            start += page.groups.length;
+            if (start >= page.total_results) break;
+        }
+        return builder.build();
+    }
+}
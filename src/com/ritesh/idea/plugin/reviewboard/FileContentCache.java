@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.google.common.io.CharStreams;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.ritesh.idea.plugin.util.DiskLruCache;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent, size bounded LRU cache of original/patched file contents.
+ * Diff revisions on the server are immutable so entries never need invalidation.
+ */
+public class FileContentCache {
+    private static final Logger LOG = Logger.getInstance(FileContentCache.class);
+
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+    private static final String EXTENSION = ".gz";
+    // Empty marker of a side the server has no contents for, e.g. the original of an added file
+    private static final String ABSENT_EXTENSION = ".absent";
+
+    public enum Side {
+        ORIGINAL, PATCHED
+    }
+
+    private static class Holder {
+        private static final FileContentCache INSTANCE =
+                new FileContentCache(new File(PathManager.getSystemPath(), "review-board/contents"), DEFAULT_MAX_SIZE);
+    }
+
+    public static FileContentCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private final DiskLruCache cache;
+
+    public FileContentCache(File directory, long maxSize) {
+        cache = new DiskLruCache(directory, maxSize, EXTENSION, ABSENT_EXTENSION);
+    }
+
+    public static String key(String server, String reviewId, String revision, String fileId, Side side) {
+        return server + '|' + reviewId + '|' + revision + '|' + fileId + '|' + side;
+    }
+
+    public String get(String key) {
+        String name = DiskLruCache.name(key, EXTENSION);
+        try (InputStream in = cache.open(name)) {
+            if (in == null) return null;
+            return CharStreams.toString(new InputStreamReader(new GZIPInputStream(in), CharsetToolkit.UTF8_CHARSET));
+        } catch (IOException e) {
+            LOG.warn("Dropping unreadable cache entry " + name, e);
+            cache.remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the server was found to have no contents under the key
+     */
+    public boolean isAbsent(String key) {
+        return cache.contains(DiskLruCache.name(key, ABSENT_EXTENSION));
+    }
+
+    public void putAbsent(String key) {
+        String name = DiskLruCache.name(key, ABSENT_EXTENSION);
+        try {
+            cache.commit(name, cache.createTempFile(name));
+        } catch (IOException e) {
+            LOG.warn("Unable to cache " + key, e);
+        }
+    }
+
+    public void put(String key, String content) {
+        if (content == null) return;
+        String name = DiskLruCache.name(key, EXTENSION);
+        File tempFile = null;
+        try {
+            tempFile = cache.createTempFile(name);
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tempFile)),
+                    CharsetToolkit.UTF8_CHARSET)) {
+                writer.write(content);
+            }
+            cache.commit(name, tempFile);
+        } catch (IOException e) {
+            LOG.warn("Unable to cache " + key, e);
+        } finally {
+            if (tempFile != null) FileUtil.delete(tempFile);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import java.util.*;
+
+/**
+ * Immutable prefix index of values by their lower cased terms, e.g. user names by user name, first and last name.
+ * The trie is kept flattened into a sorted array of terms: every node is the range of terms sharing its path,
+ * found by binary search, which holds tens of thousands of terms in a few arrays instead of a node per character.
+ */
+class PrefixIndex {
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+
+    private final String[] terms;
+    // Index in values of the value each term belongs to
+    private final int[] owners;
+    private final String[] values;
+    private final int maxTermLength;
+
+    static class Builder {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Set<Integer>> owners = new HashMap<>();
+
+        Builder add(String value, String... terms) {
+            if (value == null) return this;
+            int index = values.size();
+            values.add(value);
+            for (String term : terms) {
+                if (term == null || term.trim().isEmpty()) continue;
+                String key = term.trim().toLowerCase(Locale.ENGLISH);
+                Set<Integer> termOwners = owners.get(key);
+                if (termOwners == null) owners.put(key, termOwners = new TreeSet<>());
+                termOwners.add(index);
+            }
+            return this;
+        }
+
+        PrefixIndex build() {
+            List<String> keys = new ArrayList<>(owners.keySet());
+            Collections.sort(keys);
+            int size = 0;
+            for (Set<Integer> termOwners : owners.values()) size += termOwners.size();
+
+            String[] terms = new String[size];
+            int[] termOwners = new int[size];
+            int i = 0;
+            for (String key : keys) {
+                for (int owner : owners.get(key)) {
+                    terms[i] = key;
+                    termOwners[i++] = owner;
+                }
+            }
+            return new PrefixIndex(terms, termOwners, values.toArray(new String[values.size()]));
+        }
+    }
+
+    private PrefixIndex(String[] terms, int[] owners, String[] values) {
+        this.terms = terms;
+        this.owners = owners;
+        this.values = values;
+        int max = 0;
+        for (String term : terms) max = Math.max(max, term.length());
+        this.maxTermLength = max;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    /**
+     * Values having a term that starts with the prefix, in the order of their terms
+     */
+    List<String> prefix(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ENGLISH);
+        Set<String> result = new LinkedHashSet<>();
+        collect(lowerBound(key), upperBound(key), result, limit);
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Values having a term that starts with the prefix give or take the given number of typos, by walking the
+     * flattened trie with a row of the edit distance table per depth, skipping every subtree that can not match.
+     */
+    List<String> fuzzy(String prefix, int maxDistance, int limit) {
+        char[] query = prefix.toLowerCase(Locale.ENGLISH).toCharArray();
+        int n = query.length;
+        Set<String> result = new LinkedHashSet<>();
+        if (n <= maxDistance) return new ArrayList<>(result);
+
+        int[][] rows = new int[maxTermLength + 1][n + 1];
+        for (int j = 0; j <= n; j++) rows[0][j] = j;
+
+        String previous = "";
+        // Depth up to which the rows hold the path of the previous term
+        int valid = 0;
+        int i = 0;
+        while (i < terms.length && result.size() < limit) {
+            String term = terms[i];
+            int depth = Math.min(valid, commonPrefix(previous, term));
+            int next = i + 1;
+            while (depth < term.length()) {
+                depth++;
+                int[] row = rows[depth];
+                int[] above = rows[depth - 1];
+                char c = term.charAt(depth - 1);
+                row[0] = depth;
+                int min = row[0];
+                for (int j = 1; j <= n; j++) {
+                    int cost = query[j - 1] == c ? 0 : 1;
+                    row[j] = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+                    min = Math.min(min, row[j]);
+                }
+                if (row[n] <= maxDistance) {
+                    // Every term below this node matches
+                    next = upperBound(term.substring(0, depth));
+                    collect(i, next, result, limit);
+                    break;
+                }
+                if (min > maxDistance) {
+                    // No term below this node can match
+                    next = upperBound(term.substring(0, depth));
+                    break;
+                }
+            }
+            previous = term;
+            valid = depth;
+            i = next;
+        }
+        return new ArrayList<>(result);
+    }
+
+    private void collect(int from, int to, Set<String> result, int limit) {
+        for (int i = from; i < to && result.size() < limit; i++) {
+            result.add(values[owners[i]]);
+        }
+    }
+
+    /**
+     * First term not before the key
+     */
+    private int lowerBound(String key) {
+        int low = 0, high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * First term past the ones starting with the prefix
+     */
+    private int upperBound(String prefix) {
+        return lowerBound(prefix + MAX_CHAR);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+}
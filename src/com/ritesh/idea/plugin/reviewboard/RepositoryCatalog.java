@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.ritesh.idea.plugin.reviewboard.model.RBRepository;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Repositories of the server, with every page of them loaded. The list is persisted so that it is available
+ * right after startup; once older than its time to live it keeps being served while reloaded in background.
+ */
+class RepositoryCatalog {
+    private static final Logger LOG = Logger.getInstance(RepositoryCatalog.class);
+    private static final Gson GSON = new GsonBuilder().create();
+
+    static final long TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+    private static final int PAGE_SIZE = 200;
+
+    private static class Snapshot {
+        final List<Repository> repositories;
+        final long loadedAt;
+        transient Map<String, String> idsByName;
+
+        Snapshot(List<Repository> repositories, long loadedAt) {
+            this.repositories = Collections.unmodifiableList(repositories);
+            this.loadedAt = loadedAt;
+            index();
+        }
+
+        void index() {
+            idsByName = new HashMap<>();
+            for (Repository repository : repositories) idsByName.put(repository.name, repository.id);
+        }
+    }
+
+    private final ReviewBoardClient client;
+    private final File file;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    RepositoryCatalog(ReviewBoardClient client, File file) {
+        this.client = client;
+        this.file = file;
+        this.snapshot = read();
+    }
+
+    /**
+     * Waits for the repositories only when none were ever loaded
+     */
+    List<Repository> repositories() throws Exception {
+        Snapshot current = cached();
+        return current != null ? current.repositories : load().repositories;
+    }
+
+    /**
+     * @return the repositories without waiting, or null when none were ever loaded
+     */
+    @Nullable
+    List<Repository> cachedRepositories() {
+        Snapshot current = cached();
+        return current == null ? null : current.repositories;
+    }
+
+    @Nullable
+    String id(String name) {
+        Snapshot current = snapshot;
+        return current == null || name == null ? null : current.idsByName.get(name);
+    }
+
+    private Snapshot cached() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt > TIME_TO_LIVE) revalidate();
+        return current;
+    }
+
+    private void revalidate() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load();
+                } catch (Exception e) {
+                    LOG.info("Reloading repositories failed : " + e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            }
+        });
+    }
+
+    private Snapshot load() throws Exception {
+        List<Repository> repositories = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            RBRepository page = client.repositories(start, PAGE_SIZE);
+            if (page.repositories == null || page.repositories.length == 0) break;
+            for (RBRepository.Repository repository : page.repositories) {
+                repositories.add(new Repository(repository.id, repository.name));
+            }
+            start += page.repositories.length;
+            if (start >= page.total_results) break;
+        }
+        Snapshot loaded = new Snapshot(repositories, System.currentTimeMillis());
+        snapshot = loaded;
+        write(loaded);
+        return loaded;
+    }
+
+    private Snapshot read() {
+        if (!file.isFile()) return null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), CharsetToolkit.UTF8_CHARSET)) {
+            Snapshot stored = GSON.fromJson(reader, Snapshot.class);
+            if (stored == null || stored.repositories == null) return null;
+            stored.index();
+            return stored;
+        } catch (IOException | JsonParseException e) {
+            LOG.warn("Dropping unreadable repositories " + file, e);
+            FileUtil.delete(file);
+            return null;
+        }
+    }
+
+    private void write(Snapshot snapshot) {
+        try {
+            File directory = file.getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Unable to create directory " + directory);
+            }
+            File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), CharsetToolkit.UTF8_CHARSET)) {
+                GSON.toJson(snapshot, writer);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to store repositories " + file, e);
+        }
+    }
+}
@@ -37,8 +37,12 @@ public class Review {
         public String fileId;
         public String srcFileName;
         public String dstFileName;
-        public String srcFileContents;
-        public String dstFileContents;
+        public String srcFileUrl;
+        public String dstFileUrl;
+        public volatile String srcFileContents;
+        public volatile String dstFileContents;
+        // Either side may legitimately have no contents, so loading is tracked apart from them
+        public volatile boolean contentsLoaded;
         public String sourceRevision;
         public String revision;
 
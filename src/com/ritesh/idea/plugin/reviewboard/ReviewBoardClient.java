@@ -17,23 +17,29 @@
 package com.ritesh.idea.plugin.reviewboard;
 
 import com.google.common.io.CharStreams;
-import com.intellij.openapi.vfs.CharsetToolkit;
-import com.intellij.util.net.ssl.CertificateManager;
 import com.ritesh.idea.plugin.exception.InvalidCredentialException;
 import com.ritesh.idea.plugin.exception.ReviewBoardServerException;
 import com.ritesh.idea.plugin.reviewboard.model.*;
+import com.ritesh.idea.plugin.util.HttpClientPool;
 import com.ritesh.idea.plugin.util.HttpRequestBuilder;
-import org.apache.commons.codec.binary.Base64;
+import com.ritesh.idea.plugin.util.RequestCanceller;
+import com.ritesh.idea.plugin.util.SessionAuthenticator;
+import com.ritesh.idea.plugin.util.ValidatorCache;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
 
 /**
  * @author Ritesh
@@ -47,7 +53,6 @@ public class ReviewBoardClient {
     private static final String DIFF_COMMENTS = "diff-comments";
     private static final String DRAFT = "draft";
     private static final String REVIEWS = "reviews";
-    private static final String AUTHORIZATION = "Authorization";
     private static final String REPOSITORIES = "repositories";
     private static final String GROUPS = "groups";
     private static final String USERS = "users";
@@ -55,21 +60,20 @@ public class ReviewBoardClient {
     private static final String ERRORCODE_LOGINFAILED = "104";
 
     private final String url;
-    private final String userName;
-    private final String password;
+    private final CloseableHttpClient httpClient;
+    private final SessionAuthenticator authenticator;
+    private final ValidatorCache validatorCache = new ValidatorCache();
 
-    public ReviewBoardClient(String url, String userName, String password) {
+    public ReviewBoardClient(String url, String userName, String password, HttpClientPool httpClientPool) {
         this.url = url;
-        this.userName = userName;
-        this.password = password;
+        this.httpClient = httpClientPool.client();
+        this.authenticator = new SessionAuthenticator(userName, password, httpClientPool.cookieStore());
     }
 
-    private String getAuthorizationHeader() {
-        return getAuthorizationHeader(userName, password);
-    }
-
-    private String getAuthorizationHeader(String userName, String password) {
-        return "Basic " + Base64.encodeBase64String((userName + ":" + password).getBytes());
+    private static String timestamp(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
     }
 
     private <T extends RBModel> T checkSuccess(T model) {
@@ -87,54 +91,81 @@ public class ReviewBoardClient {
 
     public RBReviewRequestList reviewRequestListApi(String fromUser, String toUser, String status,
                                                     String repositoryId, long start, long count) throws URISyntaxException, IOException {
-        HttpRequestBuilder requestBuilder = HttpRequestBuilder.get(url).route(API).route(REVIEW_REQUESTS).slash();
+        return reviewRequestListApi(fromUser, toUser, status, repositoryId, null, start, count);
+    }
+
+    public RBReviewRequestList reviewRequestListApi(String fromUser, String toUser, String status, String repositoryId,
+                                                    Date lastUpdatedFrom, long start, long count) throws URISyntaxException, IOException {
+        HttpRequestBuilder requestBuilder = HttpRequestBuilder.get(httpClient, url).route(API).route(REVIEW_REQUESTS).slash();
         if (toUser != null) requestBuilder.queryString("to-users", toUser);
         if (fromUser != null) requestBuilder.queryString("from-user", fromUser);
         if (repositoryId != null) requestBuilder.queryString("repository", repositoryId);
+        if (lastUpdatedFrom != null) requestBuilder.queryString("last-updated-from", timestamp(lastUpdatedFrom));
 
         RBReviewRequestList result = requestBuilder.queryString("start", String.valueOf(start))
                 .queryString("max-results", String.valueOf(count))
                 .queryString("status", status)
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
+                .conditional(validatorCache)
                 .asJson(RBReviewRequestList.class);
         return checkSuccess(result);
     }
 
+    public RBCount reviewRequestCountApi(String fromUser, String toUser, String status,
+                                         String repositoryId) throws URISyntaxException, IOException {
+        HttpRequestBuilder requestBuilder = HttpRequestBuilder.get(httpClient, url).route(API).route(REVIEW_REQUESTS).slash();
+        if (toUser != null) requestBuilder.queryString("to-users", toUser);
+        if (fromUser != null) requestBuilder.queryString("from-user", fromUser);
+        if (repositoryId != null) requestBuilder.queryString("repository", repositoryId);
+
+        RBCount result = requestBuilder.queryString("counts-only", 1)
+                .queryString("status", status)
+                .auth(authenticator)
+                .conditional(validatorCache)
+                .asJson(RBCount.class);
+        return checkSuccess(result);
+    }
+
     public RBDiffList diffListApi(String reviewRequestId) throws URISyntaxException, IOException {
-        RBDiffList result = HttpRequestBuilder.get(url).route(API).route(REVIEW_REQUESTS).route(reviewRequestId)
-                .route(DIFFS).slash().header(AUTHORIZATION, getAuthorizationHeader()).asJson(RBDiffList.class);
+        RBDiffList result = HttpRequestBuilder.get(httpClient, url).route(API).route(REVIEW_REQUESTS).route(reviewRequestId)
+                .route(DIFFS).slash().auth(authenticator)
+                .conditional(validatorCache)
+                .asJson(RBDiffList.class);
         return checkSuccess(result);
     }
 
     public RBFileDiff fileDiffApi(String reviewRequestId, String revision) throws URISyntaxException, IOException {
-        RBFileDiff result = HttpRequestBuilder.get(url).route(API).route(REVIEW_REQUESTS)
+        RBFileDiff result = HttpRequestBuilder.get(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(DIFFS).route(revision).route(FILES).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
+                .conditional(validatorCache)
                 .asJson(RBFileDiff.class);
         return checkSuccess(result);
     }
 
     public RBComments diffCommentListApi(String reviewRequestId, String revision, String fileId) throws URISyntaxException, IOException {
-        RBComments result = HttpRequestBuilder.get(url).route(API).route(REVIEW_REQUESTS)
+        RBComments result = HttpRequestBuilder.get(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(DIFFS).route(revision).route(FILES).route(fileId)
                 .route(DIFF_COMMENTS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
+                .conditional(validatorCache)
                 .asJson(RBComments.class);
         return checkSuccess(result);
     }
 
     public RBReview createReviewApi(String reviewRequestId, Boolean shipIt) throws URISyntaxException, IOException {
-        HttpRequestBuilder requestBuilder = HttpRequestBuilder.post(url).route(API).route(REVIEW_REQUESTS)
+        HttpRequestBuilder requestBuilder = HttpRequestBuilder.post(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(REVIEWS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader());
+                .auth(authenticator);
         if (shipIt != null) requestBuilder.field("ship_it", shipIt);
         RBReview result = requestBuilder.asJson(RBReview.class);
         return checkSuccess(result);
     }
 
-    public RBRepository repositories(int count) throws URISyntaxException, IOException {
-        RBRepository result = HttpRequestBuilder.get(url).route(API).route(REPOSITORIES).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+    public RBRepository repositories(int start, int count) throws URISyntaxException, IOException {
+        RBRepository result = HttpRequestBuilder.get(httpClient, url).route(API).route(REPOSITORIES).slash()
+                .auth(authenticator)
+                .queryString("start", start)
                 .queryString("max-results", count)
                 .asJson(RBRepository.class);
         return checkSuccess(result);
@@ -142,24 +173,24 @@ public class ReviewBoardClient {
 
     public void createDiffComment(String reviewRequestId, String reviewId, String filediff_id,
                                   int first_line, int num_lines, String text, boolean issue_opened) throws URISyntaxException, IOException {
-        RBModel result = HttpRequestBuilder.post(url).route(API).route(REVIEW_REQUESTS)
+        RBModel result = HttpRequestBuilder.post(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(REVIEWS).route(reviewId).route(DIFF_COMMENTS).slash()
                 .field("filediff_id", filediff_id)
                 .field("first_line", first_line)
                 .field("num_lines", num_lines)
                 .field("issue_opened", issue_opened)
                 .field("text", text)
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
                 .asJson(RBModel.class);
         checkSuccess(result);
     }
 
     public void updateReviewApi(String reviewRequestId, String reviewId, boolean isPublic,
                                 String body_top, String body_bottom) throws URISyntaxException, IOException {
-        HttpRequestBuilder put = HttpRequestBuilder.put(url);
+        HttpRequestBuilder put = HttpRequestBuilder.put(httpClient, url);
         put.route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(REVIEWS).route(reviewId).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
                 .field("public", isPublic);
         if (!StringUtils.isEmpty(body_bottom)) put.field("body_bottom", body_bottom);
         if (!StringUtils.isEmpty(body_top)) put.field("body_top", body_top);
@@ -169,26 +200,33 @@ public class ReviewBoardClient {
 
     public String contents(String href) {
         try {
-            HttpRequestBase request = HttpRequestBuilder.get(href)
-                    .header(AUTHORIZATION, getAuthorizationHeader())
-                    .request();
-            try (CloseableHttpClient client = HttpClientBuilder.create().setSslcontext(CertificateManager.getInstance().getSslContext()).build()) {
-                CloseableHttpResponse response = client.execute(request);
-
-                if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                    return null;
-                } else {
+            HttpRequestBuilder builder = HttpRequestBuilder.get(httpClient, href).auth(authenticator);
+            HttpRequestBase request = builder.request();
+            RequestCanceller.register(request);
+            try (CloseableHttpResponse response = builder.execute()) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == HttpStatus.SC_OK) {
                     return CharStreams.toString(new InputStreamReader(response.getEntity().getContent()));
                 }
+                // Drain the body so the connection can go back to the pool
+                EntityUtils.consume(response.getEntity());
+                // The file does not exist on that side, e.g. an added or deleted file
+                if (statusCode == HttpStatus.SC_NOT_FOUND) return null;
+                // Anything else, like an error page, must never be taken for the file
+                throw new ReviewBoardServerException("Unable to load " + href + " : " + response.getStatusLine());
+            } finally {
+                RequestCanceller.unregister(request);
             }
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     public RBCreateReview createReviewRequestApi(String repositoryId) throws URISyntaxException, IOException {
-        RBCreateReview result = HttpRequestBuilder.post(url).route(API).route(REVIEW_REQUESTS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+        RBCreateReview result = HttpRequestBuilder.post(httpClient, url).route(API).route(REVIEW_REQUESTS).slash()
+                .auth(authenticator)
                 .field("repository", repositoryId)
                 .asJson(RBCreateReview.class);
         return checkSuccess(result);
@@ -196,27 +234,27 @@ public class ReviewBoardClient {
 
 
     public RBModel updateReviewRequestStatus(String reviewRequestId, String status) throws URISyntaxException, IOException {
-        RBModel result = HttpRequestBuilder.put(url).route(API).route(REVIEW_REQUESTS)
+        RBModel result = HttpRequestBuilder.put(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
                 .field("status", status)
                 .asJson(RBCreateReview.class);
         return checkSuccess(result);
     }
 
-    public RBModel draftDiffUploadApi(String reviewRequestId, String content, String basedir) throws URISyntaxException, IOException {
-        RBModel model = HttpRequestBuilder.post(url).route(API).route(REVIEW_REQUESTS)
+    public RBModel draftDiffUploadApi(String reviewRequestId, File diff, String basedir) throws URISyntaxException, IOException {
+        RBModel model = HttpRequestBuilder.post(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(DIFFS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
                 .field("basedir", basedir)
-                .file("path", "git.diff", content.getBytes(CharsetToolkit.UTF8_CHARSET))
+                .file("path", "git.diff", diff)
                 .asJson(RBModel.class);
         return checkSuccess(model);
     }
 
     public RBGroupList groupsApi(String q, int maxResults) throws URISyntaxException, IOException {
-        RBGroupList result = HttpRequestBuilder.get(url).route(API).route(GROUPS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+        RBGroupList result = HttpRequestBuilder.get(httpClient, url).route(API).route(GROUPS).slash()
+                .auth(authenticator)
                 .queryString("q", q)
                 .queryString("max-results", maxResults)
                 .asJson(RBGroupList.class);
@@ -224,19 +262,37 @@ public class ReviewBoardClient {
     }
 
     public RBUserList usersApi(String q) throws URISyntaxException, IOException {
-        RBUserList result = HttpRequestBuilder.get(url).route(API).route(USERS).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+        RBUserList result = HttpRequestBuilder.get(httpClient, url).route(API).route(USERS).slash()
+                .auth(authenticator)
                 .queryString("q", q)
                 .asJson(RBUserList.class);
         return checkSuccess(result);
     }
 
+    public RBGroupList groupListApi(int start, int maxResults) throws URISyntaxException, IOException {
+        RBGroupList result = HttpRequestBuilder.get(httpClient, url).route(API).route(GROUPS).slash()
+                .auth(authenticator)
+                .queryString("start", start)
+                .queryString("max-results", maxResults)
+                .asJson(RBGroupList.class);
+        return checkSuccess(result);
+    }
+
+    public RBUserList userListApi(int start, int maxResults) throws URISyntaxException, IOException {
+        RBUserList result = HttpRequestBuilder.get(httpClient, url).route(API).route(USERS).slash()
+                .auth(authenticator)
+                .queryString("start", start)
+                .queryString("max-results", maxResults)
+                .asJson(RBUserList.class);
+        return checkSuccess(result);
+    }
+
 
     public RBModel updateReviewApi(String reviewRequestId, String description, String summary, String targetGroups,
                                    String targetPeople, boolean isPublic) throws URISyntaxException, IOException {
-        RBModel model = HttpRequestBuilder.post(url).route(API).route(REVIEW_REQUESTS)
+        RBModel model = HttpRequestBuilder.post(httpClient, url).route(API).route(REVIEW_REQUESTS)
                 .route(reviewRequestId).route(DRAFT).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader())
+                .auth(authenticator)
                 .field("summary", summary)
                 .field("description", description)
                 .field("target_groups", targetGroups)
@@ -247,8 +303,10 @@ public class ReviewBoardClient {
     }
 
     public RBModel testConnection(String url, String username, String password) throws URISyntaxException, IOException {
-        RBModel model = HttpRequestBuilder.get(url).route(API).slash()
-                .header(AUTHORIZATION, getAuthorizationHeader(username, password)).asJson(RBModel.class);
+        RBModel model = HttpRequestBuilder.get(httpClient, url).route(API).slash()
+                .header(HttpHeaders.AUTHORIZATION, SessionAuthenticator.basic(username, password))
+                .withoutCookies()
+                .asJson(RBModel.class);
         return checkSuccess(model);
     }
 }
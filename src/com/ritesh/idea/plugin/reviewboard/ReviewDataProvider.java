@@ -16,50 +16,73 @@
 
 package com.ritesh.idea.plugin.reviewboard;
 
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.ConcurrencyUtil;
 import com.ritesh.idea.plugin.exception.InvalidConfigurationException;
 import com.ritesh.idea.plugin.reviewboard.model.*;
 import com.ritesh.idea.plugin.state.Configuration;
 import com.ritesh.idea.plugin.state.ConfigurationPersistance;
 import com.ritesh.idea.plugin.state.DefaultState;
 import com.ritesh.idea.plugin.state.DefaultStatePersistance;
+import com.ritesh.idea.plugin.util.HttpClientPool;
 import com.ritesh.idea.plugin.util.Page;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.mutable.MutableFloat;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
 import java.net.URISyntaxException;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author Ritesh
  */
 public class ReviewDataProvider {
+    private String url;
     private ReviewBoardClient client;
-    private static Map<Project, ReviewDataProvider> reviewDataProviderMap = new WeakHashMap<>();
-
+    private HttpClientPool httpClientPool;
+    private ContentDownloadScheduler downloadScheduler = new ContentDownloadScheduler();
+    private final ThreadPoolExecutor publishExecutor;
+    private final CommentPublisher commentPublisher;
+
+    /**
+     * The provider of the project, built for its current configuration
+     */
     public static ReviewDataProvider getInstance(Project project) {
-        Configuration configuration = getConfiguration(project);
+        getConfiguration(project);
+        return ReviewDataProviderRegistry.getInstance(project).get();
+    }
 
-        if (!reviewDataProviderMap.containsKey(project)) {
-            ReviewBoardClient client = new ReviewBoardClient(configuration.url
-                    , configuration.username, configuration.password);
-            reviewDataProviderMap.put(project, new ReviewDataProvider(client));
-        }
-        return reviewDataProviderMap.get(project);
+    /**
+     * Disposes the provider of the project, once its configuration changed
+     */
+    public static void reset(Project project) {
+        ReviewDataProviderRegistry.getInstance(project).reset();
     }
 
-    public static void reset(){
-        reviewDataProviderMap.clear();
+    static ReviewDataProvider create(Project project) {
+        Configuration configuration = getConfiguration(project);
+        HttpClientPool httpClientPool = new HttpClientPool();
+        ReviewBoardClient client = new ReviewBoardClient(configuration.url
+                , configuration.username, configuration.password, httpClientPool);
+        RepositoryCatalog repositoryCatalog = new RepositoryCatalog(client, new File(PathManager.getSystemPath(),
+                "review-board/repositories/" + DigestUtils.sha1Hex(configuration.url + '|' + configuration.username) + ".json"));
+        return new ReviewDataProvider(configuration.url, client, httpClientPool, repositoryCatalog);
     }
 
     public static Configuration getConfiguration(final Project project) {
@@ -76,10 +99,33 @@ public class ReviewDataProvider {
         return state;
     }
 
-    private Reference<List<Repository>> repositoriesCache;
+    private final RepositoryCatalog repositoryCatalog;
+    private static final int MAX_SYNC_RESULTS = 200;
+    private static final int MAX_COMPLETIONS = 10;
+    private static final long AWAIT_POLL_MILLIS = 100;
+    private final DirectoryIndex directoryIndex;
+    private final Map<String, ReviewListStore> reviewListStores = new ConcurrentHashMap<>();
 
-    private ReviewDataProvider(ReviewBoardClient client) {
+    private ReviewDataProvider(String url, ReviewBoardClient client, HttpClientPool httpClientPool,
+                               RepositoryCatalog repositoryCatalog) {
+        this.url = url;
         this.client = client;
+        this.httpClientPool = httpClientPool;
+        this.repositoryCatalog = repositoryCatalog;
+        this.directoryIndex = new DirectoryIndex(client);
+        directoryIndex.start();
+        publishExecutor = new ThreadPoolExecutor(CommentPublisher.DEFAULT_WINDOW, CommentPublisher.DEFAULT_WINDOW,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                ConcurrencyUtil.newNamedThreadFactory("ReviewBoard comment publisher"));
+        publishExecutor.allowCoreThreadTimeOut(true);
+        this.commentPublisher = new CommentPublisher(client, publishExecutor);
+    }
+
+    void dispose() {
+        directoryIndex.stop();
+        downloadScheduler.shutdown();
+        publishExecutor.shutdownNow();
+        httpClientPool.close();
     }
 
     public String reviewBoardUrl(Project project) {
@@ -90,12 +136,30 @@ public class ReviewDataProvider {
         return reviewBoardUrl(project) + "/r/" + review.id + "/";
     }
 
-    public RBGroupList groups(String q) throws URISyntaxException, IOException {
-        return client.groupsApi(q, 10);
+    /**
+     * Names of the groups matching the prefix, from the local index, or from the server when it has none
+     */
+    public List<String> groups(String q) throws URISyntaxException, IOException {
+        List<String> names = directoryIndex.groups(q, MAX_COMPLETIONS);
+        if (names != null) return names;
+        names = new ArrayList<>();
+        for (RBGroupList.Group group : client.groupsApi(q, MAX_COMPLETIONS).groups) {
+            names.add(group.name);
+        }
+        return names;
     }
 
-    public RBUserList users(String q) throws URISyntaxException, IOException {
-        return client.usersApi(q);
+    /**
+     * Names of the users matching the prefix, from the local index, or from the server when it has none
+     */
+    public List<String> users(String q) throws URISyntaxException, IOException {
+        List<String> names = directoryIndex.users(q, MAX_COMPLETIONS);
+        if (names != null) return names;
+        names = new ArrayList<>();
+        for (RBUserList.RBUser user : client.usersApi(q).users) {
+            names.add(user.username);
+        }
+        return names;
     }
 
     public void updateReviewRequest(Review reviewRequest, String summary, String description, String targetPeople,
@@ -105,10 +169,10 @@ public class ReviewDataProvider {
 
 
     public void createReviewRequest(String summary, String description, String targetPeople, String targetGroup,
-                                    String repositoryId, String diffContent) throws Exception {
+                                    String repositoryId, File diff) throws Exception {
         RBCreateReview reviewRequestApi = client.createReviewRequestApi(repositoryId);
         String reviewRequestId = String.valueOf(reviewRequestApi.review_request.id);
-        client.draftDiffUploadApi(reviewRequestId, diffContent, "/");
+        client.draftDiffUploadApi(reviewRequestId, diff, "/");
         client.updateReviewApi(reviewRequestId, description, summary, targetGroup, targetPeople, true);
     }
 
@@ -133,8 +197,44 @@ public class ReviewDataProvider {
     }
 
     public Page<Review> listReviews(String fromUser, String toUser, String status, String repositoryId, int start, int count) throws Exception {
-        List<Review> reviews = new ArrayList<>();
         RBReviewRequestList reviewRequestList = client.reviewRequestListApi(fromUser, toUser, status, repositoryId, start, count);
+        return new Page<>(toReviews(reviewRequestList), start, count, reviewRequestList.total_results);
+    }
+
+    /**
+     * First page of reviews, refreshed incrementally from the review requests updated since the previous call
+     * for the same list. Falls back to a full reload when the page can not be rebuilt from the changes.
+     */
+    public Page<Review> syncReviews(String fromUser, String toUser, String status, String repositoryId, int count) throws Exception {
+        String key = fromUser + '|' + toUser + '|' + status + '|' + repositoryId + '|' + count;
+        ReviewListStore store = reviewListStores.get(key);
+        if (store != null && store.watermark() != null) {
+            RBReviewRequestList updated = client.reviewRequestListApi(fromUser, toUser, "all", repositoryId,
+                    store.watermark(), 0, MAX_SYNC_RESULTS);
+            if (updated.total_results <= updated.review_requests.length) {
+                int total = store.page().getTotal();
+                if (updated.review_requests.length > 0) {
+                    total = client.reviewRequestCountApi(fromUser, toUser, status, repositoryId).count;
+                }
+                if (store.merge(toReviews(updated), total)) return store.page();
+            }
+        } else {
+            store = new ReviewListStore(status, count);
+            reviewListStores.put(key, store);
+        }
+        store.reset(listReviews(fromUser, toUser, status, repositoryId, 0, count));
+        return store.page();
+    }
+
+    /**
+     * Pending review requests updated on or after the given time, or the most recently updated ones without it
+     */
+    public List<Review> updatedReviews(String fromUser, String toUser, Date since) throws Exception {
+        return toReviews(client.reviewRequestListApi(fromUser, toUser, "pending", null, since, 0, MAX_SYNC_RESULTS));
+    }
+
+    private List<Review> toReviews(RBReviewRequestList reviewRequestList) {
+        List<Review> reviews = new ArrayList<>();
         for (RBReviewRequestList.ReviewRequest request : reviewRequestList.review_requests) {
             String[] targetPeople = new String[request.target_people.length];
             for (int i = 0; i < targetPeople.length; i++) targetPeople[i] = request.target_people[i].title;
@@ -159,7 +259,7 @@ public class ReviewDataProvider {
                     .build();
             reviews.add(review);
         }
-        return new Page<>(reviews, start, count, reviewRequestList.total_results);
+        return reviews;
     }
 
     public void shipIt(final Review reviewRequest) throws Exception {
@@ -170,39 +270,44 @@ public class ReviewDataProvider {
     public void createReview(final Review reviewRequest, final List<Review.File.Comment> comments, String reviewComment,
                              final Progress progress) throws Exception {
         final RBReview review = client.createReviewApi(reviewRequest.id, null);
-        final MutableFloat progressF = new MutableFloat(0f);
+        final String reviewId = String.valueOf(review.review.id);
 
-        for (final Review.File.Comment comment : comments) {
-            progress.progress("Updating comment", progressF.floatValue());
-            client.createDiffComment(reviewRequest.id, String.valueOf(review.review.id),
-                    comment.file.fileId, comment.firstLine, comment.numberOfLines, comment.text, comment.issueOpened);
-            progressF.setValue(progressF.floatValue() + 1.0f / (comments.size() - 1));
-        }
+        progress.progress("Updating comment", 0f);
+        commentPublisher.publish(reviewRequest.id, reviewId, comments, progress);
 
-        progress.progress("Making review public", progressF.floatValue());
-        client.updateReviewApi(reviewRequest.id, String.valueOf(review.review.id), true, reviewComment, null);
+        progress.progress("Making review public", 1f);
+        client.updateReviewApi(reviewRequest.id, reviewId, true, reviewComment, null);
         progress.progress("Review Completed", 1);
     }
 
 
+    /**
+     * Repositories of the server; only the very first call waits for them to load
+     */
     public List<Repository> repositories() throws Exception {
-        if (repositoriesCache == null || repositoriesCache.get() == null) {
-            final RBRepository repositories = client.repositories(200);
-            List<Repository> result = new ArrayList<>();
-            for (RBRepository.Repository repository : repositories.repositories) {
-                result.add(new Repository(repository.id, repository.name));
-            }
-            repositoriesCache = new SoftReference<>(result);
-            return result;
-        }
-        return repositoriesCache.get();
+        return repositoryCatalog.repositories();
     }
 
+    /**
+     * @return the repositories if loaded before, without waiting, or null
+     */
+    @Nullable
+    public List<Repository> cachedRepositories() {
+        return repositoryCatalog.cachedRepositories();
+    }
 
-    public List<Review.File> files(final Review review, final Progress progress) throws Exception {
+    @Nullable
+    public String repositoryId(String repositoryName) {
+        return repositoryCatalog.id(repositoryName);
+    }
+
+
+    /**
+     * Lists the files of the latest diff of the review. Contents are not waited for, they are queued for
+     * download in background and can be fetched on demand with {@link #loadContents(Review, Review.File)}.
+     */
+    public List<Review.File> files(final Review review) throws Exception {
         List<Review.File> result = new ArrayList<>();
-        final List<Future> futures = new CopyOnWriteArrayList<>();
-        final MutableFloat progressF = new MutableFloat(0f);
         final RBDiffList diffList = client.diffListApi(review.id);
 
         if (diffList.total_results > 0) {
@@ -217,39 +322,98 @@ public class ReviewDataProvider {
                 diffFile.dstFileName = file.dest_file;
                 diffFile.sourceRevision = file.source_revision;
                 diffFile.revision = revision;
+                diffFile.srcFileUrl = file.links.original_file.href;
+                diffFile.dstFileUrl = file.links.patched_file.href;
 
-                futures.add(ApplicationManager.getApplication().executeOnPooledThread(
-                        new Runnable() {
-                            @Override
-                            public void run() {
-                                progress.progress("Loading file contents "
-                                        + Paths.get(diffFile.srcFileName).getFileName(), progressF.floatValue());
-                                diffFile.srcFileContents = client.contents(file.links.original_file.href);
-                                progressF.setValue(progressF.floatValue() + 1.0f / diffList.total_results);
-                                progress.progress("Completed loading contents", progressF.floatValue());
-                            }
-                        }
-                ));
-
-                futures.add(ApplicationManager.getApplication().executeOnPooledThread(
-                        new Runnable() {
-                            @Override
-                            public void run() {
-                                progress.progress("Loading file contents "
-                                        + Paths.get(diffFile.dstFileName).getFileName(), progressF.floatValue());
-                                diffFile.dstFileContents = client.contents(file.links.patched_file.href);
-                                progressF.setValue(progressF.floatValue() + 1.0f / diffList.total_results);
-                                progress.progress("Completed loading contents", progressF.floatValue());
-                            }
-                        }
-                ));
+                submitContents(review, diffFile, FileContentCache.Side.ORIGINAL, ContentDownloadScheduler.Priority.BACKGROUND);
+                submitContents(review, diffFile, FileContentCache.Side.PATCHED, ContentDownloadScheduler.Priority.BACKGROUND);
                 result.add(diffFile);
             }
         }
-        for (Future future : futures) future.get();
         return result;
     }
 
+    /**
+     * Makes sure original and patched contents of the file are available, downloading them ahead of
+     * everything else queued if needed
+     */
+    public void loadContents(Review review, Review.File file) throws Exception {
+        if (file.contentsLoaded) return;
+        Future<String> original = submitContents(review, file, FileContentCache.Side.ORIGINAL,
+                ContentDownloadScheduler.Priority.FOREGROUND);
+        Future<String> patched = submitContents(review, file, FileContentCache.Side.PATCHED,
+                ContentDownloadScheduler.Priority.FOREGROUND);
+        try {
+            // The futures may belong to downloads queued earlier for another instance of the file
+            file.srcFileContents = await(original);
+            file.dstFileContents = await(patched);
+            file.contentsLoaded = true;
+        } catch (CancellationException e) {
+            // Another review got selected meanwhile
+            throw new ProcessCanceledException();
+        } catch (ProcessCanceledException e) {
+            // The waiting task got cancelled, its downloads are of no use anymore
+            original.cancel(true);
+            patched.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the download while checking the progress indicator of the calling task, if any
+     */
+    private static String await(Future<String> download) throws Exception {
+        while (true) {
+            ProgressManager.checkCanceled();
+            try {
+                return download.get(AWAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check again
+            }
+        }
+    }
+
+    private Future<String> submitContents(final Review review, final Review.File file, final FileContentCache.Side side,
+                                          ContentDownloadScheduler.Priority priority) {
+        return downloadScheduler.submit(contentKey(review, file, side), priority, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return contents(review, file, side, side == FileContentCache.Side.ORIGINAL ? file.srcFileUrl : file.dstFileUrl);
+            }
+        });
+    }
+
+    /**
+     * Moves the contents of the file ahead of the other queued downloads
+     */
+    public void prioritize(Review review, Review.File file) {
+        downloadScheduler.prioritize(contentKey(review, file, FileContentCache.Side.ORIGINAL),
+                ContentDownloadScheduler.Priority.FOREGROUND);
+        downloadScheduler.prioritize(contentKey(review, file, FileContentCache.Side.PATCHED),
+                ContentDownloadScheduler.Priority.FOREGROUND);
+    }
+
+    public void cancelDownloads() {
+        downloadScheduler.cancelAll();
+    }
+
+    private String contentKey(Review review, Review.File file, FileContentCache.Side side) {
+        return FileContentCache.key(url, review.id, file.revision, file.fileId, side);
+    }
+
+    private String contents(Review review, Review.File file, FileContentCache.Side side, String href) {
+        FileContentCache cache = FileContentCache.getInstance();
+        String key = contentKey(review, file, side);
+        if (cache.isAbsent(key)) return null;
+        String contents = cache.get(key);
+        if (contents == null) {
+            contents = client.contents(href);
+            if (contents == null) cache.putAbsent(key);
+            else cache.put(key, contents);
+        }
+        return contents;
+    }
+
     public List<Review.File.Comment> comments(Review review, Review.File file) throws Exception {
         RBComments comments = client.diffCommentListApi(review.id, file.revision, file.fileId);
         List<Review.File.Comment> result = new ArrayList<>();
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+
+/**
+ * Holds the {@link ReviewDataProvider} of a project, along with the connection pool, caches and threads it owns.
+ * Looking it up takes no lock once created. It is disposed when the configuration changes, the next lookup
+ * building a new one, and for good when the project closes.
+ */
+public class ReviewDataProviderRegistry implements Disposable {
+    private final Project project;
+    private volatile ReviewDataProvider provider;
+    private boolean disposed;
+
+    public static ReviewDataProviderRegistry getInstance(Project project) {
+        return ServiceManager.getService(project, ReviewDataProviderRegistry.class);
+    }
+
+    public ReviewDataProviderRegistry(Project project) {
+        this.project = project;
+    }
+
+    ReviewDataProvider get() {
+        ReviewDataProvider current = provider;
+        if (current != null) return current;
+        synchronized (this) {
+            if (disposed) throw new IllegalStateException("Project " + project.getName() + " is closed");
+            if (provider == null) provider = ReviewDataProvider.create(project);
+            return provider;
+        }
+    }
+
+    synchronized void reset() {
+        ReviewDataProvider previous = provider;
+        provider = null;
+        if (previous != null) previous.dispose();
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        reset();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.ritesh.idea.plugin.util.Page;
+
+import java.util.*;
+
+/**
+ * First page of a review list (newest updates first), kept up to date by merging the review requests
+ * updated since the last synchronization.
+ */
+class ReviewListStore {
+    private static final String ALL = "all";
+
+    private final String status;
+    private final int count;
+    private final List<Review> reviews = new ArrayList<>();
+    private Date watermark;
+    private int total;
+
+    ReviewListStore(String status, int count) {
+        this.status = status;
+        this.count = count;
+    }
+
+    synchronized void reset(Page<Review> page) {
+        reviews.clear();
+        reviews.addAll(page.getResult());
+        total = page.getTotal();
+        watermark = null;
+        for (Review review : reviews) advanceWatermark(review);
+    }
+
+    /**
+     * Time of the newest update seen. Querying from it is inclusive, so the newest review comes back again
+     * and is merged as unchanged.
+     */
+    synchronized Date watermark() {
+        return watermark;
+    }
+
+    /**
+     * Merges review requests of any status updated after the watermark.
+     *
+     * @param total number of review requests matching the list now
+     * @return false when the page can not be rebuilt from the delta and has to be reloaded
+     */
+    synchronized boolean merge(List<Review> updated, int total) {
+        Map<String, Review> byId = new LinkedHashMap<>();
+        for (Review review : reviews) byId.put(review.id, review);
+
+        for (Review review : updated) {
+            advanceWatermark(review);
+            if (ALL.equals(status) || status == null || status.equals(review.status)) {
+                byId.put(review.id, review);
+            } else {
+                byId.remove(review.id);
+            }
+        }
+
+        List<Review> merged = new ArrayList<>(byId.values());
+        Collections.sort(merged, new Comparator<Review>() {
+            @Override
+            public int compare(Review o1, Review o2) {
+                if (o1.lastUpdated == null || o2.lastUpdated == null) return 0;
+                return o2.lastUpdated.compareTo(o1.lastUpdated);
+            }
+        });
+        // Rows that left the first page would have to be refilled from the next one
+        if (merged.size() < count && total > merged.size()) return false;
+
+        this.total = total;
+        reviews.clear();
+        reviews.addAll(merged.subList(0, Math.min(count, merged.size())));
+        return true;
+    }
+
+    synchronized Page<Review> page() {
+        return new Page<>(new ArrayList<>(reviews), 0, count, total);
+    }
+
+    private void advanceWatermark(Review review) {
+        if (review.lastUpdated != null && (watermark == null || review.lastUpdated.after(watermark))) {
+            watermark = review.lastUpdated;
+        }
+    }
+}
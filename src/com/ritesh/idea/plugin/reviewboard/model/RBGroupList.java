@@ -21,6 +21,7 @@ package com.ritesh.idea.plugin.reviewboard.model;
  */
 public class RBGroupList extends RBModel {
 
+    public int total_results;
     public Group groups[];
 
     public static class Group {
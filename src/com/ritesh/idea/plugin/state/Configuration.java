@@ -25,13 +25,16 @@ public class Configuration {
     public String password;
     public Boolean useRbTools;
     public String rbtPath;
+    public Boolean pollReviews;
 
-    public Configuration(String url, String username, String password, Boolean useRbTools, String rbtPath) {
+    public Configuration(String url, String username, String password, Boolean useRbTools, String rbtPath,
+                         Boolean pollReviews) {
         this.url = url;
         this.username = username;
         this.password = password;
         this.useRbTools = useRbTools;
         this.rbtPath = rbtPath;
+        this.pollReviews = pollReviews;
     }
 
     public Configuration() {
@@ -40,7 +43,7 @@ public class Configuration {
     @Override
     protected Object clone() throws CloneNotSupportedException {
         super.clone();
-        return new Configuration(url, username, password, useRbTools, rbtPath);
+        return new Configuration(url, username, password, useRbTools, rbtPath, pollReviews);
     }
 
     @Override
@@ -50,6 +53,7 @@ public class Configuration {
                 ", url='" + url + '\'' +
                 ", useRbTools='" + useRbTools + '\'' +
                 ", rbtPath='" + rbtPath + '\'' +
+                ", pollReviews='" + pollReviews + '\'' +
                 '}';
     }
 
@@ -64,7 +68,8 @@ public class Configuration {
                 && !(username != null ? !username.equals(that.username) : that.username != null)
                 && !(password != null ? !password.equals(that.password) : that.password != null)
                 && !(rbtPath != null ? !rbtPath.equals(that.rbtPath) : that.rbtPath != null)
-                && !(useRbTools != null ? !useRbTools.equals(that.useRbTools) : that.useRbTools != null);
+                && !(useRbTools != null ? !useRbTools.equals(that.useRbTools) : that.useRbTools != null)
+                && !(pollReviews != null ? !pollReviews.equals(that.pollReviews) : that.pollReviews != null);
 
     }
 
@@ -75,6 +80,7 @@ public class Configuration {
         result = 31 * result + (password != null ? password.hashCode() : 0);
         result = 31 * result + (useRbTools != null ? useRbTools.hashCode() : 0);
         result = 31 * result + (rbtPath != null ? rbtPath.hashCode() : 0);
+        result = 31 * result + (pollReviews != null ? pollReviews.hashCode() : 0);
         return result;
     }
 }
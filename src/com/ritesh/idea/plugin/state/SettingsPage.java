@@ -75,6 +75,7 @@ public class SettingsPage implements Configurable {
             loginPanel.setPassword(oldConfigurationState.password);
             loginPanel.setUseRbTools(oldConfigurationState.useRbTools);
             loginPanel.setUseRbToolPath(oldConfigurationState.rbtPath);
+            loginPanel.setPollReviews(oldConfigurationState.pollReviews);
         }
         loginPanel.addActionListener(new ActionListener() {
             @Override
@@ -94,15 +95,17 @@ public class SettingsPage implements Configurable {
                 !Comparing.equal(loginPanel.getUsername(), oldConfigurationState.username) ||
                 !Comparing.equal(loginPanel.useRbTools(), oldConfigurationState.useRbTools) ||
                 !Comparing.equal(loginPanel.rbtPath(), oldConfigurationState.rbtPath) ||
+                !Comparing.equal(loginPanel.pollReviews(), oldConfigurationState.pollReviews) ||
                 !Comparing.equal(loginPanel.getPassword(), oldConfigurationState.password);
     }
 
     @Override
     public void apply() throws ConfigurationException {
         Configuration configuration = new Configuration(
-                loginPanel.getUrl(), loginPanel.getUsername(), loginPanel.getPassword(), loginPanel.useRbTools(), loginPanel.rbtPath());
+                loginPanel.getUrl(), loginPanel.getUsername(), loginPanel.getPassword(), loginPanel.useRbTools(),
+                loginPanel.rbtPath(), loginPanel.pollReviews());
         ConfigurationPersistance.getInstance(project).loadState(configuration);
-        ReviewDataProvider.reset();
+        ReviewDataProvider.reset(project);
     }
 
     @Override
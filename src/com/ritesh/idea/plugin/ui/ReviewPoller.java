@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.ui;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationListener;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.ritesh.idea.plugin.messages.PluginBundle;
+import com.ritesh.idea.plugin.reviewboard.Review;
+import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
+import com.ritesh.idea.plugin.state.Configuration;
+import com.ritesh.idea.plugin.state.ConfigurationPersistance;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls incoming and outgoing review requests in background, when enabled in settings, and notifies
+ * about the new and updated ones. Polling slows down while the IDE is idle and when the server fails.
+ */
+public class ReviewPoller extends AbstractProjectComponent {
+    private static final Logger LOG = Logger.getInstance(ReviewPoller.class);
+
+    private static final long BASE_INTERVAL = TimeUnit.MINUTES.toMillis(2);
+    private static final long MAX_INTERVAL = TimeUnit.MINUTES.toMillis(30);
+    // Time without any input to the IDE after which the user is taken as away
+    private static final long IDLE_TIME = TimeUnit.MINUTES.toMillis(10);
+
+    //Map of review id and last update time, as of the last poll
+    private final Map<String, Date> snapshot = new HashMap<>();
+    private Date watermark;
+    private boolean seeded;
+    private long interval = BASE_INTERVAL;
+    private ScheduledFuture<?> next;
+    private boolean closed;
+
+    public ReviewPoller(Project project) {
+        super(project);
+    }
+
+    @Override
+    public void projectOpened() {
+        schedule(BASE_INTERVAL);
+    }
+
+    @Override
+    public synchronized void projectClosed() {
+        closed = true;
+        if (next != null) next.cancel(false);
+    }
+
+    @NotNull
+    @Override
+    public String getComponentName() {
+        return "ReviewBoardPoller";
+    }
+
+    private synchronized void schedule(long delay) {
+        if (closed) return;
+        next = JobScheduler.getScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        schedule(poll());
+                    }
+                });
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return delay until the next poll
+     */
+    private long poll() {
+        Configuration configuration = ConfigurationPersistance.getInstance(myProject).getState();
+        if (configuration == null || configuration.pollReviews != Boolean.TRUE || StringUtil.isEmpty(configuration.url)
+                || StringUtil.isEmpty(configuration.username)) {
+            reset();
+            return BASE_INTERVAL;
+        }
+        try {
+            ReviewDataProvider provider = ReviewDataProvider.getInstance(myProject);
+            List<Review> updated = new ArrayList<>();
+            updated.addAll(provider.updatedReviews(null, configuration.username, watermark));
+            updated.addAll(provider.updatedReviews(configuration.username, null, watermark));
+            notifyChanges(updated);
+            // Working in another window is no reason to slow down, only the user being away is
+            interval = IdeEventQueue.getInstance().getIdleTime() < IDLE_TIME ? BASE_INTERVAL : backOff();
+        } catch (Exception e) {
+            LOG.info("Polling reviews failed : " + e.getMessage());
+            interval = backOff();
+        }
+        return interval;
+    }
+
+    private long backOff() {
+        return Math.min(interval * 2, MAX_INTERVAL);
+    }
+
+    private void reset() {
+        snapshot.clear();
+        watermark = null;
+        seeded = false;
+        interval = BASE_INTERVAL;
+    }
+
+    private void notifyChanges(List<Review> updated) {
+        for (Review review : updated) {
+            if (review.lastUpdated == null) continue;
+            Date previous = snapshot.put(review.id, review.lastUpdated);
+            if (seeded && (previous == null || review.lastUpdated.after(previous))) {
+                notify(review, previous == null);
+            }
+            if (watermark == null || review.lastUpdated.after(watermark)) watermark = review.lastUpdated;
+        }
+        // The first poll only records what is already there
+        seeded = true;
+    }
+
+    private void notify(Review review, boolean isNew) {
+        String url = ReviewDataProvider.getInstance(myProject).reviewUrl(myProject, review);
+        String content = String.format("<a href=\"%s\">%s</a> by %s", url, StringUtil.escapeXml(review.summary),
+                StringUtil.escapeXml(review.submitter));
+        Notifications.Bus.notify(new Notification("ReviewBoard",
+                PluginBundle.message(isNew ? PluginBundle.NEW_REVIEW_TITLE : PluginBundle.UPDATED_REVIEW_TITLE),
+                content, NotificationType.INFORMATION, NotificationListener.URL_OPENING_LISTENER), myProject);
+    }
+}
@@ -16,20 +16,15 @@
 
 package com.ritesh.idea.plugin.ui;
 
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.ritesh.idea.plugin.util.RequestCanceller;
 import com.ritesh.idea.plugin.util.ThrowableFunction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-
 /**
  * @author ritesh
  */
@@ -59,41 +54,25 @@ public class TaskUtil {
     }
 
 
+    /**
+     * Runs the task on the progress thread itself; callbacks fire as soon as it completes.
+     * Cancelling the indicator aborts in-flight http requests of the task (see {@link RequestCanceller}).
+     */
     private static <T> void runTask(final ProgressIndicator progressIndicator,
                                     @NotNull final ThrowableFunction<ProgressIndicator, T> task,
                                     @Nullable final ThrowableFunction<T, Void> success,
                                     @Nullable final Runnable onFailure) {
-        Future<Exception> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Exception>() {
-            @Override
-            public Exception call() throws Exception {
-                try {
-                    T result = task.throwableCall(progressIndicator);
-                    if (success != null) success.throwableCall(result);
-                } catch (Exception e) {
-                    return e;
-                }
-                return null;
-            }
-        });
-
-        while (true) {
-            try {
-                final Exception exception = future.get(100, TimeUnit.MILLISECONDS);
-                if (exception != null) {
-                    ExceptionHandler.handleException(exception);
-                    if (onFailure != null) onFailure.run();
-                }
-                return;
-            } catch (TimeoutException ignore) {
-                try {
-                    progressIndicator.checkCanceled();
-                } catch (ProcessCanceledException e) {
-                    return;
-                }
-            } catch (Exception e) {
-                ExceptionHandler.handleException(e);
-                return;
-            }
+        try {
+            T result = task.throwableCall(progressIndicator);
+            progressIndicator.checkCanceled();
+            if (success != null) success.throwableCall(result);
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            // Failures caused by aborting a cancelled task are not errors
+            if (progressIndicator.isCanceled()) return;
+            ExceptionHandler.handleException(e);
+            if (onFailure != null) onFailure.run();
         }
     }
 }
@@ -24,10 +24,15 @@ import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
 import com.ritesh.idea.plugin.diff.IVcsDiffProvider;
+import com.ritesh.idea.plugin.diff.SelectedChanges;
 import com.ritesh.idea.plugin.diff.VcsDiffProviderFactory;
 import com.ritesh.idea.plugin.messages.PluginBundle;
 import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
@@ -35,9 +40,10 @@ import com.ritesh.idea.plugin.state.DefaultState;
 import com.ritesh.idea.plugin.ui.ExceptionHandler;
 import com.ritesh.idea.plugin.ui.TaskUtil;
 import com.ritesh.idea.plugin.ui.panels.DraftReviewPanel;
+import com.ritesh.idea.plugin.util.ProgressOutputStream;
 import com.ritesh.idea.plugin.util.ThrowableFunction;
 
-import static org.apache.commons.lang.StringUtils.isEmpty;
+import java.io.*;
 
 /**
  * @author Ritesh
@@ -60,25 +66,30 @@ public class ShowReviewBoard extends AnAction {
                         PluginBundle.message(PluginBundle.UNSUPPORTED_VCS_MESSAGE), NotificationType.WARNING));
                 return;
             }
+            Change[] selectedChanges = SelectedChanges.of(e);
+            String confirmation = selectedChanges == null ? "Upload all local changes?"
+                    : "Upload " + selectedChanges.length + " selected change(s)?";
             if (vcsDiffProvider.isFromRevision(project, e) ||
-                    Messages.showOkCancelDialog(project, "Upload all local changes?", "Confirmation",
+                    Messages.showOkCancelDialog(project, confirmation, "Confirmation",
                             AllIcons.General.BalloonWarning) == Messages.OK) {
                 TaskUtil.queueTask(project, "Generating diff", false, new ThrowableFunction<ProgressIndicator, Object>() {
                     @Override
                     public Object throwableCall(ProgressIndicator params) throws Exception {
-                        final String diffContent;
                         try {
-                            diffContent = vcsDiffProvider.generateDiff(project, e);
+                            final File diff = writeDiff(project, vcsDiffProvider, e, params);
                             ApplicationManager.getApplication().invokeLater(new Runnable() {
                                 @Override
                                 public void run() {
-                                    if (isEmpty(diffContent)) {
+                                    if (diff.length() == 0) {
+                                        FileUtil.delete(diff);
                                         Messages.showErrorDialog(project, "Cannot generate diff", "Error");
                                     } else {
-                                        showCreateReviewPanel(project, diffContent);
+                                        showCreateReviewPanel(project, diff);
                                     }
                                 }
                             });
+                        } catch (ProcessCanceledException ex) {
+                            throw ex;
                         } catch (Exception ex) {
                             ExceptionHandler.handleException(ex);
                         }
@@ -92,7 +103,24 @@ public class ShowReviewBoard extends AnAction {
         }
     }
 
-    private void showCreateReviewPanel(final Project project, final String diffContent) {
+    /**
+     * Streams the diff into a temporary file, so that it never has to fit in the heap; it is streamed from
+     * the file again when uploaded
+     */
+    private static File writeDiff(Project project, IVcsDiffProvider vcsDiffProvider, AnActionEvent e,
+                                  ProgressIndicator indicator) throws IOException, VcsException {
+        File diff = FileUtil.createTempFile("review-board", ".diff", true);
+        boolean written = false;
+        try (OutputStream out = new ProgressOutputStream(new BufferedOutputStream(new FileOutputStream(diff)), indicator)) {
+            vcsDiffProvider.generateDiff(project, e, out);
+            written = true;
+        } finally {
+            if (!written) FileUtil.delete(diff);
+        }
+        return diff;
+    }
+
+    private void showCreateReviewPanel(final Project project, final File diff) {
         DefaultState state = ReviewDataProvider.getDefaultState(project);
         final DraftReviewPanel draftReviewPanel =
                 new DraftReviewPanel(project, "Create Review Request", null, null, state.targetPeople, state.targetGroup, state.repository);
@@ -104,13 +132,19 @@ public class ShowReviewBoard extends AnAction {
             TaskUtil.queueTask(project, "Uploading Review", false, new ThrowableFunction<ProgressIndicator, Void>() {
                 @Override
                 public Void throwableCall(ProgressIndicator params) throws Exception {
-                    ReviewDataProvider.getInstance(project).
-                            createReviewRequest(draftReviewPanel.getSummary(), draftReviewPanel.getDescription(),
-                                    draftReviewPanel.getTargetPeople(), draftReviewPanel.getTargetGroup(),
-                                    draftReviewPanel.getRepositoryId(), diffContent);
+                    try {
+                        ReviewDataProvider.getInstance(project).
+                                createReviewRequest(draftReviewPanel.getSummary(), draftReviewPanel.getDescription(),
+                                        draftReviewPanel.getTargetPeople(), draftReviewPanel.getTargetGroup(),
+                                        draftReviewPanel.getRepositoryId(), diff);
+                    } finally {
+                        FileUtil.delete(diff);
+                    }
                     return null;
                 }
             }, null, null);
+        } else {
+            FileUtil.delete(diff);
         }
     }
 }
@@ -18,10 +18,12 @@ package com.ritesh.idea.plugin.ui.controls;
 
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileTypes.FileTypes;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.spellchecker.ui.SpellCheckingEditorCustomization;
@@ -29,13 +31,21 @@ import com.intellij.ui.EditorCustomization;
 import com.intellij.ui.EditorTextField;
 import com.intellij.ui.EditorTextFieldProvider;
 import com.intellij.ui.SoftWrapsEditorCustomization;
+import com.intellij.util.Alarm;
 import com.intellij.util.TextFieldCompletionProvider;
-import org.apache.commons.lang.mutable.MutableBoolean;
+import com.ritesh.idea.plugin.ui.ExceptionHandler;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author ritesh on 24/7/15.
@@ -45,25 +55,42 @@ public class MultiValueAutoComplete {
 
     private static final char[] SEPARATORS = {','};
 
-    public static EditorTextField create(Project project, DataProvider dataProvider) {
+    /**
+     * @param parentDisposable disposed along with the field, e.g. the disposable of its dialog
+     */
+    public static EditorTextField create(Project project, DataProvider dataProvider, Disposable parentDisposable) {
         List<EditorCustomization> customizations =
                 Arrays.<EditorCustomization>asList(SoftWrapsEditorCustomization.ENABLED, SpellCheckingEditorCustomization.DISABLED);
         EditorTextField editorField = ServiceManager.getService(project, EditorTextFieldProvider.class)
                 .getEditorField(FileTypes.PLAIN_TEXT.getLanguage(), project, customizations);
-        new CommaSeparatedTextFieldCompletion(dataProvider).apply(editorField);
+        new CommaSeparatedTextFieldCompletion(dataProvider, parentDisposable).apply(editorField);
         return editorField;
 
     }
 
     public interface DataProvider {
-        List<String> getValues(String prefix);
+        /**
+         * Runs on a pooled thread under the progress indicator of the completion, which gets cancelled as soon as
+         * the prefix changes.
+         */
+        List<String> getValues(String prefix) throws Exception;
     }
 
+    /**
+     * Queries the data provider off the completion thread, once the user paused typing. The next keystroke
+     * cancels the pending query of the field, before it was sent or along with its http request.
+     */
     private static class CommaSeparatedTextFieldCompletion extends TextFieldCompletionProvider {
+        private static final int DEBOUNCE_MILLIS = 250;
+        private static final long WAIT_MILLIS = 100;
+
         private DataProvider dataProvider;
+        private final Alarm alarm;
+        private FutureTask<List<String>> query;
 
-        public CommaSeparatedTextFieldCompletion(DataProvider dataProvider) {
+        public CommaSeparatedTextFieldCompletion(DataProvider dataProvider, Disposable parentDisposable) {
             this.dataProvider = dataProvider;
+            this.alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, parentDisposable);
         }
 
         @NotNull
@@ -87,35 +114,89 @@ public class MultiValueAutoComplete {
         @Override
         protected void addCompletionVariants(@NotNull String text, int offset, @NotNull final String prefix,
                                              @NotNull CompletionResultSet result) {
+            // Values are looked up on the server per prefix, so a longer prefix can bring values the lookup lacks
+            result.restartCompletionOnAnyPrefixChange();
+            result.addLookupAdvertisement("Select one or more users separated with comma, | or new lines");
 
-            final List<String> values = new ArrayList<>();
-            final MutableBoolean completed = new MutableBoolean(false);
-            ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            FutureTask<List<String>> task = new FutureTask<>(new Callable<List<String>>() {
                 @Override
-                public void run() {
-                    List<String> values = dataProvider.getValues(prefix);
-                    if(values!=null) {
-                        values.addAll(values);
-                    }
-                    completed.setValue(true);
+                public List<String> call() throws Exception {
+                    return fetch(prefix, indicator);
                 }
             });
+            synchronized (this) {
+                if (query != null) query.cancel(true);
+                alarm.cancelAllRequests();
+                query = task;
+                alarm.addRequest(task, DEBOUNCE_MILLIS);
+            }
 
-            while (!completed.booleanValue()) {
-                ProgressManager.getInstance().checkCanceled();
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    LOG.error(e);
+            List<String> values;
+            try {
+                values = await(task);
+            } catch (CancellationException e) {
+                // superseded by a newer prefix
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // An aborted request of a cancelled completion is no failure
+                Throwable cause = e.getCause();
+                if (!(cause instanceof ProcessCanceledException) && (indicator == null || !indicator.isCanceled())) {
+                    ExceptionHandler.handleException(cause instanceof Exception ? (Exception) cause : e);
                 }
+                return;
             }
+            if (values != null) add(result, values);
+        }
 
-            result.addLookupAdvertisement("Select one or more users separated with comma, | or new lines");
-            for (String completionVariant : values) {
+        /**
+         * Waits for the query while checking the indicator of the completion, which also ends when the popup
+         * gets dismissed; the query is dropped along with it
+         */
+        private static List<String> await(FutureTask<List<String>> task) throws InterruptedException, ExecutionException {
+            try {
+                while (true) {
+                    ProgressManager.checkCanceled();
+                    try {
+                        return task.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check again
+                    }
+                }
+            } catch (ProcessCanceledException e) {
+                task.cancel(true);
+                throw e;
+            }
+        }
+
+        private List<String> fetch(final String prefix, ProgressIndicator indicator) throws Exception {
+            if (indicator == null) return dataProvider.getValues(prefix);
+            // Keeps the request abortable from the indicator of the completion
+            final List<List<String>> values = new ArrayList<>(1);
+            final Exception[] failure = new Exception[1];
+            ProgressManager.getInstance().executeProcessUnderProgress(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ProgressManager.checkCanceled();
+                        values.add(dataProvider.getValues(prefix));
+                    } catch (Exception e) {
+                        failure[0] = e;
+                    }
+                }
+            }, indicator);
+            if (failure[0] != null) throw failure[0];
+            return values.get(0);
+        }
+
+        private static void add(CompletionResultSet result, List<String> values) {
+            for (String completionVariant : new LinkedHashSet<>(values)) {
                 final LookupElementBuilder element = LookupElementBuilder.create(completionVariant);
                 result.addElement(element.withLookupString(completionVariant.toLowerCase()));
             }
-
         }
     }
 }
@@ -131,6 +131,7 @@ public class CommentsDiffTool extends FrameDiffTool {
                 if (value != null && value.id == null) {
                     CommentsDiffTool.this.comments.remove(value);
                     updateHighLights(editor);
+                    actionListener.actionPerformed(new ActionEvent(this, 0, null));
                 }
                 popup.dispose();
             }
@@ -29,9 +29,6 @@ import com.intellij.ui.EditorTextFieldProvider;
 import com.intellij.ui.SoftWrapsEditorCustomization;
 import com.ritesh.idea.plugin.reviewboard.Repository;
 import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
-import com.ritesh.idea.plugin.reviewboard.model.RBGroupList;
-import com.ritesh.idea.plugin.reviewboard.model.RBUserList;
-import com.ritesh.idea.plugin.ui.ExceptionHandler;
 import com.ritesh.idea.plugin.ui.TaskUtil;
 import com.ritesh.idea.plugin.ui.controls.MultiValueAutoComplete;
 import com.ritesh.idea.plugin.util.ThrowableFunction;
@@ -55,8 +52,6 @@ public class DraftReviewPanel extends DialogWrapper {
     private ComboBox repositoryComboBox;
     private Project project;
 
-    private List<Repository> repositories;
-
     @SuppressWarnings("unchecked")
     public DraftReviewPanel(final Project project, String dialogTitle,
                             String summary, String description, String targetPeople, String targetGroup,
@@ -73,21 +68,30 @@ public class DraftReviewPanel extends DialogWrapper {
         setTitle(dialogTitle);
         setOKActionEnabled(false);
 
+        // Repositories loaded before are shown right away, only the very first load has to be waited for
+        List<Repository> repositories = ReviewDataProvider.getInstance(project).cachedRepositories();
+        if (repositories != null) {
+            showRepositories(repositories, repository);
+            return;
+        }
         TaskUtil.queueTask(project, "Loading Repositories", true, new ThrowableFunction<ProgressIndicator, Void>() {
             @Override
             public Void throwableCall(ProgressIndicator params) throws Exception {
                 params.setIndeterminate(true);
-                repositories = ReviewDataProvider.getInstance(project).repositories();
-                for (Repository r : repositories) {
-                    DraftReviewPanel.this.repositoryComboBox.addItem(r.name);
-                }
-                DraftReviewPanel.this.repositoryComboBox.setSelectedItem(repository);
-                DraftReviewPanel.this.setOKActionEnabled(true);
+                showRepositories(ReviewDataProvider.getInstance(project).repositories(), repository);
                 return null;
             }
         }, null, null);
     }
 
+    private void showRepositories(List<Repository> repositories, String repository) {
+        for (Repository r : repositories) {
+            repositoryComboBox.addItem(r.name);
+        }
+        repositoryComboBox.setSelectedItem(repository);
+        setOKActionEnabled(true);
+    }
+
 
     @Nullable
     @Override
@@ -116,13 +120,7 @@ public class DraftReviewPanel extends DialogWrapper {
     }
 
     public String getRepositoryId() {
-        String repositoryName = getRepository();
-        for (Repository repository : repositories) {
-            if (repository.name.equals(repositoryName)) {
-                return repository.id;
-            }
-        }
-        return null;
+        return ReviewDataProvider.getInstance(project).repositoryId(getRepository());
     }
 
     private String clean(String string) {
@@ -146,39 +144,19 @@ public class DraftReviewPanel extends DialogWrapper {
         targetPeopleTextBox = MultiValueAutoComplete.create(
                 project, new MultiValueAutoComplete.DataProvider() {
                     @Override
-                    public List<String> getValues(String prefix) {
-                        try {
-                            RBUserList users = ReviewDataProvider.getInstance(project).users(prefix);
-                            List<String> userNames = new ArrayList<>();
-                            for (RBUserList.RBUser user : users.users) {
-                                userNames.add(user.username);
-                            }
-                            return userNames;
-                        } catch (Exception e) {
-                            ExceptionHandler.handleException(e);
-                        }
-                        return null;
+                    public List<String> getValues(String prefix) throws Exception {
+                        return ReviewDataProvider.getInstance(project).users(prefix);
                     }
-                }
+                }, getDisposable()
         );
 
         targetGroupTextBox = MultiValueAutoComplete.create(
                 project, new MultiValueAutoComplete.DataProvider() {
                     @Override
-                    public List<String> getValues(String prefix) {
-                        try {
-                            RBGroupList groups = ReviewDataProvider.getInstance(project).groups(prefix);
-                            List<String> userNames = new ArrayList<>();
-                            for (RBGroupList.Group user : groups.groups) {
-                                userNames.add(user.name);
-                            }
-                            return userNames;
-                        } catch (Exception e) {
-                            ExceptionHandler.handleException(e);
-                        }
-                        return null;
+                    public List<String> getValues(String prefix) throws Exception {
+                        return ReviewDataProvider.getInstance(project).groups(prefix);
                     }
-                }
+                }, getDisposable()
         );
     }
 }
@@ -35,6 +35,7 @@ public class LoginPanel {
     private JBCheckBox useRbTools;
     private JTextField rbtPath;
     private JCheckBox useRbtPath;
+    private JBCheckBox pollReviews;
 
     public LoginPanel() {
         useRbTools.addItemListener(new ItemListener() {
@@ -119,4 +120,12 @@ public class LoginPanel {
         if (useRbtPath.isSelected() && useRbTools.isSelected()) return rbtPath.getText();
         return null;
     }
+
+    public Boolean pollReviews() {
+        return pollReviews.isSelected();
+    }
+
+    public void setPollReviews(Boolean pollReviews) {
+        this.pollReviews.setSelected(pollReviews == Boolean.TRUE);
+    }
 }
@@ -22,9 +22,19 @@ import com.intellij.openapi.vcs.changes.ui.ChangeNodeDecorator;
 import com.intellij.openapi.vcs.changes.ui.ChangesBrowserNode;
 import com.intellij.openapi.vcs.changes.ui.ChangesTreeList;
 import com.intellij.openapi.vcs.changes.ui.TreeModelBuilder;
+import com.intellij.util.Consumer;
+import com.intellij.util.ui.UIUtil;
 import org.jetbrains.annotations.Nullable;
 
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -56,4 +66,56 @@ public class ReviewChangesTreeList extends ChangesTreeList<Change> {
         }
         return null;
     }
+
+    /**
+     * Notifies the listener of the changes in view whenever the tree scrolls or a node is expanded or collapsed
+     */
+    public void addVisibleChangesListener(final Consumer<List<Change>> listener) {
+        final JTree tree = UIUtil.findComponentOfType(this, JTree.class);
+        if (tree == null) return;
+        final Runnable notifier = new Runnable() {
+            @Override
+            public void run() {
+                List<Change> visibleChanges = visibleChanges(tree);
+                if (!visibleChanges.isEmpty()) listener.consume(visibleChanges);
+            }
+        };
+        JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, tree);
+        if (viewport != null) {
+            viewport.addChangeListener(new ChangeListener() {
+                @Override
+                public void stateChanged(ChangeEvent e) {
+                    notifier.run();
+                }
+            });
+        }
+        tree.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                // Rows are laid out after the event
+                SwingUtilities.invokeLater(notifier);
+            }
+
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+                SwingUtilities.invokeLater(notifier);
+            }
+        });
+    }
+
+    private static List<Change> visibleChanges(JTree tree) {
+        List<Change> changes = new ArrayList<>();
+        Rectangle visibleRect = tree.getVisibleRect();
+        if (tree.getRowCount() == 0 || visibleRect.isEmpty()) return changes;
+        int first = tree.getClosestRowForLocation(visibleRect.x, visibleRect.y);
+        int last = tree.getClosestRowForLocation(visibleRect.x, visibleRect.y + visibleRect.height - 1);
+        for (int row = first; row <= last; row++) {
+            TreePath path = tree.getPathForRow(row);
+            Object node = path == null ? null : path.getLastPathComponent();
+            if (node instanceof ChangesBrowserNode && ((ChangesBrowserNode) node).getUserObject() instanceof Change) {
+                changes.add((Change) ((ChangesBrowserNode) node).getUserObject());
+            }
+        }
+        return changes;
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.ui.toolswindow;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vcs.history.TextRevisionNumber;
+import com.intellij.openapi.vcs.history.VcsRevisionNumber;
+import com.ritesh.idea.plugin.reviewboard.Review;
+import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Content of one side of a review file, downloaded only when first asked for.
+ */
+public class ReviewContentRevision implements ContentRevision {
+    private final Project project;
+    private final Review review;
+    private final Review.File file;
+    private final boolean original;
+    private final FilePath filePath;
+    private final String revision;
+
+    public ReviewContentRevision(Project project, Review review, Review.File file, boolean original,
+                                 FilePath filePath, String revision) {
+        this.project = project;
+        this.review = review;
+        this.file = file;
+        this.original = original;
+        this.filePath = filePath;
+        this.revision = revision;
+    }
+
+    @Nullable
+    @Override
+    public String getContent() throws VcsException {
+        try {
+            ReviewDataProvider.getInstance(project).loadContents(review, file);
+        } catch (Exception e) {
+            throw new VcsException(e);
+        }
+        return original ? file.srcFileContents : file.dstFileContents;
+    }
+
+    @NotNull
+    @Override
+    public FilePath getFile() {
+        return filePath;
+    }
+
+    @NotNull
+    @Override
+    public VcsRevisionNumber getRevisionNumber() {
+        return new TextRevisionNumber(revision);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.ui.toolswindow;
+
+import org.apache.commons.lang.StringUtils;
+
+import javax.swing.*;
+import java.util.Comparator;
+
+/**
+ * Sorts and filters the rows of a {@link ReviewTableModel} on the keys it precomputed, so that neither
+ * formats nor lower cases anything per comparison.
+ */
+public class ReviewRowSorter extends DefaultRowSorter<ReviewTableModel, Integer> {
+
+    public ReviewRowSorter(final ReviewTableModel model) {
+        setModelWrapper(new ModelWrapper<ReviewTableModel, Integer>() {
+            @Override
+            public ReviewTableModel getModel() {
+                return model;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return model.getColumnCount();
+            }
+
+            @Override
+            public int getRowCount() {
+                return model.getRowCount();
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                return model.sortKey(row, column);
+            }
+
+            @Override
+            public String getStringValueAt(int row, int column) {
+                return (String) model.getValueAt(row, column);
+            }
+
+            @Override
+            public Integer getIdentifier(int row) {
+                return row;
+            }
+        });
+        for (int i = 0; i < model.getColumnCount(); i++) {
+            setComparator(i, i == ReviewTableModel.Columns.LAST_MODIFIED.getIndex()
+                    ? new NaturalComparator() : String.CASE_INSENSITIVE_ORDER);
+        }
+        // Updated reviews move to their place in the current order
+        setSortsOnUpdates(true);
+    }
+
+    /**
+     * Shows only the rows whose summary, reviewers or submitter contain the text, ignoring case
+     */
+    public void setFilterText(String text) {
+        final String lowerCased = StringUtils.trimToEmpty(text).toLowerCase();
+        if (lowerCased.isEmpty()) {
+            setRowFilter(null);
+            return;
+        }
+        setRowFilter(new RowFilter<ReviewTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ReviewTableModel, ? extends Integer> entry) {
+                return entry.getModel().contains(entry.getIdentifier(), lowerCased);
+            }
+        });
+    }
+
+    private static class NaturalComparator implements Comparator<Long> {
+        @Override
+        public int compare(Long o1, Long o2) {
+            return o1.compareTo(o2);
+        }
+    }
+}
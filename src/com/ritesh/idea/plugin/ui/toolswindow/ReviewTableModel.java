@@ -16,13 +16,19 @@
 
 package com.ritesh.idea.plugin.ui.toolswindow;
 
+import com.intellij.openapi.util.Comparing;
+import com.intellij.util.text.DateFormatUtil;
 import com.ritesh.idea.plugin.reviewboard.Review;
 import org.apache.commons.lang.StringUtils;
 
 import javax.swing.table.AbstractTableModel;
-import java.util.List;
+import java.util.*;
 
 /**
+ * Reviews kept column by column, with the display strings, sort keys and search text of a review computed once
+ * when it is added instead of on every paint. Rows follow the order of the reviews given; sorting and filtering
+ * are left to {@link ReviewRowSorter}.
+ *
  * @author Ritesh
  */
 public class ReviewTableModel extends AbstractTableModel {
@@ -51,23 +57,103 @@ public class ReviewTableModel extends AbstractTableModel {
         }
     }
 
-    private List<Review> reviews;
     private final String[] columnNames =
             {Columns.SUMMARY.getName(), Columns.SUBMITTED_TO.getName(), Columns.SUBMITTER.getName(), Columns.LAST_MODIFIED.getName()};
 
+    private final List<String> ids = new ArrayList<>();
+    private final List<Date> lastUpdated = new ArrayList<>();
+    // Display strings by column index
+    private final List<List<String>> values = new ArrayList<>();
+    // Time of the last update, the sort key of the last modified column
+    private final List<Long> lastUpdatedTimes = new ArrayList<>();
+    // Lower cased text the filter searches in
+    private final List<String> searchTexts = new ArrayList<>();
+
+    public ReviewTableModel() {
+        for (int i = 0; i < columnNames.length; i++) values.add(new ArrayList<String>());
+    }
+
     @Override
     public String getColumnName(int column) {
         return columnNames[column];
     }
 
-    public ReviewTableModel(List<Review> reviews) {
-        this.reviews = reviews;
+    /**
+     * Replaces all the rows, keeping the columns as they are
+     */
+    public void reset(List<Review> newReviews) {
+        ids.clear();
+        lastUpdated.clear();
+        lastUpdatedTimes.clear();
+        searchTexts.clear();
+        for (List<String> column : values) column.clear();
+        for (Review review : newReviews) insert(ids.size(), review);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Turns the rows into the given reviews, firing row level events so the selection and
+     * the scroll position survive the update
+     */
+    public void update(List<Review> newReviews) {
+        Set<String> newIds = new HashSet<>();
+        for (Review review : newReviews) newIds.add(review.id);
+
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            if (!newIds.contains(ids.get(i))) {
+                remove(i);
+                fireTableRowsDeleted(i, i);
+            }
+        }
+
+        for (int i = 0; i < newReviews.size(); i++) {
+            Review review = newReviews.get(i);
+            if (i < ids.size() && ids.get(i).equals(review.id)) {
+                if (!Comparing.equal(lastUpdated.get(i), review.lastUpdated)) {
+                    remove(i);
+                    insert(i, review);
+                    fireTableRowsUpdated(i, i);
+                }
+                continue;
+            }
+            int j = ids.indexOf(review.id);
+            if (j > i) {
+                remove(j);
+                fireTableRowsDeleted(j, j);
+            }
+            insert(i, review);
+            fireTableRowsInserted(i, i);
+        }
+    }
+
+    private void insert(int row, Review review) {
+        String submittedTo = StringUtils.join(review.targetPeople, ',');
+        String lastModified = review.lastUpdated == null ? "" : DateFormatUtil.formatDateTime(review.lastUpdated);
+        ids.add(row, review.id);
+        lastUpdated.add(row, review.lastUpdated);
+        lastUpdatedTimes.add(row, review.lastUpdated == null ? 0L : review.lastUpdated.getTime());
+        String summary = StringUtils.defaultString(review.summary);
+        String submitter = StringUtils.defaultString(review.submitter);
+        submittedTo = StringUtils.defaultString(submittedTo);
+        values.get(Columns.SUMMARY.getIndex()).add(row, summary);
+        values.get(Columns.SUBMITTED_TO.getIndex()).add(row, submittedTo);
+        values.get(Columns.SUBMITTER.getIndex()).add(row, submitter);
+        values.get(Columns.LAST_MODIFIED.getIndex()).add(row, lastModified);
+        // Made of the shown values, so that a missing one is not found as "null"
+        searchTexts.add(row, (summary + '\n' + submittedTo + '\n' + submitter).toLowerCase());
     }
 
+    private void remove(int row) {
+        ids.remove(row);
+        lastUpdated.remove(row);
+        lastUpdatedTimes.remove(row);
+        for (List<String> column : values) column.remove(row);
+        searchTexts.remove(row);
+    }
 
     @Override
     public int getRowCount() {
-        return reviews.size();
+        return ids.size();
     }
 
     @Override
@@ -75,18 +161,39 @@ public class ReviewTableModel extends AbstractTableModel {
         return columnNames.length;
     }
 
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        switch (columnIndex) {
-            case 0:
-                return reviews.get(rowIndex).summary;
-            case 1:
-                return StringUtils.join(reviews.get(rowIndex).targetPeople, ',');
-            case 2:
-                return reviews.get(rowIndex).submitter;
-            case 3:
-                return reviews.get(rowIndex).lastUpdated;
-        }
-        return null;
+        return values.get(columnIndex).get(rowIndex);
+    }
+
+    public String idAt(int rowIndex) {
+        return ids.get(rowIndex);
+    }
+
+    /**
+     * @return the row of the review, or -1 when it is not shown
+     */
+    public int rowOf(String id) {
+        return ids.indexOf(id);
+    }
+
+    /**
+     * Value the rows are sorted on
+     */
+    Comparable<?> sortKey(int rowIndex, int columnIndex) {
+        if (columnIndex == Columns.LAST_MODIFIED.getIndex()) return lastUpdatedTimes.get(rowIndex);
+        return values.get(columnIndex).get(rowIndex);
+    }
+
+    /**
+     * @param text lower cased text to look for in the summary, reviewers and submitter of the row
+     */
+    boolean contains(int rowIndex, String text) {
+        return searchTexts.get(rowIndex).contains(text);
     }
 }
@@ -18,11 +18,13 @@ package com.ritesh.idea.plugin.ui.toolswindow.reviewpanel;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.options.ShowSettingsUtil;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.ritesh.idea.plugin.exception.InvalidConfigurationException;
+import com.ritesh.idea.plugin.reviewboard.CommentJournal;
 import com.ritesh.idea.plugin.reviewboard.Repository;
 import com.ritesh.idea.plugin.reviewboard.Review;
 import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
@@ -35,8 +37,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ReviewPanelController {
+    private static final Logger LOG = Logger.getInstance(ReviewPanelController.class);
+
     private Project project;
     private ReviewsPanel view;
 
@@ -47,14 +53,19 @@ public class ReviewPanelController {
     private ReviewListFilter reviewListFilter = ReviewListFilter.INCOMING;
     private String status;
     private String repositoryId;
-    private List<Repository> repositories;
     private Page<Review> reviews;
     private Review selectedReview;
     private static final int COUNT = 25;
     private int start = 0, count = COUNT;
 
+    //Map of page offset and speculatively loaded page, for the current filter/status/repository
+    private final Map<Integer, Page<Review>> prefetched = new ConcurrentHashMap<>();
+    private final AtomicInteger prefetchGeneration = new AtomicInteger();
+
     //Map of fileId and new comments list
     private Map<String, List<Review.File.Comment>> newComments = new HashMap<>();
+    //Review the new comments belong to
+    private String newCommentsReviewId;
     private List<Review.File> selectedFiles;
 
     public ReviewPanelController(Project project, ReviewsPanel view) {
@@ -63,42 +74,143 @@ public class ReviewPanelController {
     }
 
     public void refreshReviews() {
+        invalidatePrefetched();
+        if (start == 0) {
+            syncReviews();
+        } else {
+            loadReviews();
+        }
+    }
+
+    /**
+     * Refreshes the first page incrementally, only fetching the reviews updated since the last refresh
+     */
+    private void syncReviews() {
         view.enablePanel(false);
         TaskUtil.queueTask(project, "Loading review", false, new ThrowableFunction<ProgressIndicator, Page<Review>>() {
             @Override
             public Page<Review> throwableCall(final ProgressIndicator progressIndicator) throws Exception {
-
                 try {
                     final String username = ReviewDataProvider.getConfiguration(project).username;
                     final String fromUser = reviewListFilter == ReviewListFilter.OUTGOING ? username : null;
                     final String toUser = reviewListFilter == ReviewListFilter.INCOMING ? username : null;
 
-                    reviews = ReviewDataProvider.getInstance(project).listReviews(fromUser, toUser, status, repositoryId
-                            , start, count);
-                    view.setReviewsList(start / COUNT + 1, reviews.getResult());
-                    view.enablePanel(true);
-                    return reviews;
-                } catch (InvalidConfigurationException e) {
+                    final Page<Review> page = ReviewDataProvider.getInstance(project)
+                            .syncReviews(fromUser, toUser, status, repositoryId, count);
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
                         public void run() {
-                            ShowSettingsUtil.getInstance().showSettingsDialog(project, SettingsPage.SETTINGS_DISPLAY_NAME);
+                            reviews = page;
+                            view.updateReviewsList(1, page.getResult());
                         }
                     });
+                    view.enablePanel(true);
+                    prefetchAdjacent(page);
+                    return page;
+                } catch (InvalidConfigurationException e) {
+                    showSettings();
+                    throw e;
+                }
+            }
+        }, null, null);
+    }
+
+    private void loadReviews() {
+        final Page<Review> prefetchedPage = prefetched.remove(start);
+        if (prefetchedPage != null) {
+            showReviews(prefetchedPage);
+            return;
+        }
+        view.enablePanel(false);
+        TaskUtil.queueTask(project, "Loading review", false, new ThrowableFunction<ProgressIndicator, Page<Review>>() {
+            @Override
+            public Page<Review> throwableCall(final ProgressIndicator progressIndicator) throws Exception {
+
+                try {
+                    Page<Review> page = fetchReviews(start);
+                    showReviews(page);
+                    return page;
+                } catch (InvalidConfigurationException e) {
+                    showSettings();
                     throw e;
                 }
             }
         }, null, null);
     }
 
+    private void showSettings() {
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                ShowSettingsUtil.getInstance().showSettingsDialog(project, SettingsPage.SETTINGS_DISPLAY_NAME);
+            }
+        });
+    }
+
+    private Page<Review> fetchReviews(int start) throws Exception {
+        final String username = ReviewDataProvider.getConfiguration(project).username;
+        final String fromUser = reviewListFilter == ReviewListFilter.OUTGOING ? username : null;
+        final String toUser = reviewListFilter == ReviewListFilter.INCOMING ? username : null;
+
+        return ReviewDataProvider.getInstance(project).listReviews(fromUser, toUser, status, repositoryId, start, count);
+    }
+
+    private void showReviews(final Page<Review> page) {
+        // The reviews change along with the rows, on the thread the selection is handled on
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                reviews = page;
+                view.setReviewsList(page.getOffset() / COUNT + 1, page.getResult());
+            }
+        });
+        view.enablePanel(true);
+        prefetchAdjacent(page);
+    }
+
+    private void invalidatePrefetched() {
+        synchronized (prefetched) {
+            prefetchGeneration.incrementAndGet();
+            prefetched.clear();
+        }
+    }
+
+    /**
+     * Speculatively loads the previous and next page so that paging does not wait on the server
+     */
+    private void prefetchAdjacent(Page<Review> page) {
+        final int generation = prefetchGeneration.get();
+        final List<Integer> offsets = new ArrayList<>();
+        if (page.getOffset() - COUNT >= 0) offsets.add(page.getOffset() - COUNT);
+        if (page.getOffset() + COUNT < page.getTotal()) offsets.add(page.getOffset() + COUNT);
+        prefetched.keySet().retainAll(offsets);
+
+        for (final Integer offset : offsets) {
+            if (prefetched.containsKey(offset)) continue;
+            ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Page<Review> result = fetchReviews(offset);
+                        // Under the lock of invalidatePrefetched, so that a stale page can not land after it cleared
+                        synchronized (prefetched) {
+                            if (generation == prefetchGeneration.get()) prefetched.put(offset, result);
+                        }
+                    } catch (Exception e) {
+                        LOG.debug("Unable to prefetch reviews from " + offset, e);
+                    }
+                }
+            });
+        }
+    }
+
 
     public void loadRepositories(final String defaultRepository) {
         TaskUtil.queueTask(project, "Loading Repositories", false, new ThrowableFunction<ProgressIndicator, Void>() {
             @Override
             public Void throwableCall(ProgressIndicator params) throws Exception {
-                repositories = ReviewDataProvider.getInstance(project).repositories();
                 List<String> repositoryNames = new ArrayList<>();
-                for (Repository repository : repositories) {
+                for (Repository repository : ReviewDataProvider.getInstance(project).repositories()) {
                     repositoryNames.add(repository.name);
                 }
                 view.updateRepositories(repositoryNames, defaultRepository);
@@ -145,6 +257,7 @@ public class ReviewPanelController {
         TaskUtil.queueTask(project, "Loading Comments", false, new ThrowableFunction<ProgressIndicator, List<Review.File.Comment>>() {
             @Override
             public List<Review.File.Comment> throwableCall(ProgressIndicator params) throws Exception {
+                ReviewDataProvider.getInstance(project).loadContents(selectedReview, file);
                 List<Review.File.Comment> comments = ReviewDataProvider.getInstance(project).comments(selectedReview, file);
 
                 List<Review.File.Comment> commentsForFile = newComments.get(file.fileId);
@@ -158,6 +271,18 @@ public class ReviewPanelController {
 
 
     public void updateNewComments(Review.File file, List<Review.File.Comment> comments) {
+        CommentJournal journal = CommentJournal.getInstance(project);
+        List<Review.File.Comment> previous = newComments.get(file.fileId);
+        for (Review.File.Comment comment : comments) {
+            if (previous == null || !previous.contains(comment)) journal.added(selectedReview.id, file.fileId, comment);
+        }
+        if (previous != null) {
+            for (Review.File.Comment comment : previous) {
+                if (!comments.contains(comment)) journal.deleted(selectedReview.id, comment);
+            }
+        }
+        newCommentsReviewId = selectedReview.id;
+
         if (comments.isEmpty()) {
             newComments.remove(file.fileId);
         } else {
@@ -182,7 +307,13 @@ public class ReviewPanelController {
                                 progressIndicator.setText(text);
                             }
                         });
-                clearNewComments();
+                // The new comments are read on the event dispatch thread, and the success callback runs on this one
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        clearNewComments();
+                    }
+                });
                 return null;
             }
         }, new ThrowableFunction<Void, Void>() {
@@ -217,17 +348,11 @@ public class ReviewPanelController {
                 TaskUtil.queueTask(project, "Loading review", false, new ThrowableFunction<ProgressIndicator, List<Review.File>>() {
                     @Override
                     public List<Review.File> throwableCall(final ProgressIndicator progressIndicator) throws Exception {
-                        List<Review.File> files = ReviewDataProvider.getInstance(project).files(selectedReview,
-                                new ReviewDataProvider.Progress() {
-                                    @Override
-                                    public void progress(String text, float percentage) {
-                                        progressIndicator.setText(text);
-                                        progressIndicator.setFraction(percentage);
-                                    }
-                                });
+                        List<Review.File> files = ReviewDataProvider.getInstance(project).files(selectedReview);
+                        restoreNewComments(selectedReview, files);
                         view.enablePanel(true);
                         selectedFiles = files;
-                        view.setCurrentReview(selectedFiles);
+                        view.setCurrentReview(selectedReview, selectedFiles);
                         return files;
                     }
                 }, null, null);
@@ -257,14 +382,7 @@ public class ReviewPanelController {
     }
 
     public void repositoryChanged(String repositoryName) {
-        this.repositoryId = null;
-        for (Repository repository : repositories) {
-            if (repository.name == repositoryName) {
-                this.repositoryId = repository.id;
-                break;
-            }
-
-        }
+        this.repositoryId = ReviewDataProvider.getInstance(project).repositoryId(repositoryName);
         this.start = 0;
         refreshReviews();
     }
@@ -275,11 +393,33 @@ public class ReviewPanelController {
         refreshReviews();
     }
 
-    public void selectedReviewChanged(int selectedReviewIndex) {
-        selectedReview = reviews.getResult().get(selectedReviewIndex);
+    public void selectedReviewChanged(String selectedReviewId) {
+        Review review = null;
+        for (Review candidate : reviews.getResult()) {
+            if (candidate.id.equals(selectedReviewId)) review = candidate;
+        }
+        if (review == null) return;
+        selectedReview = review;
+        ReviewDataProvider.getInstance(project).cancelDownloads();
         loadSelectedReview();
     }
 
+    public void selectedFileChanged(Review.File file) {
+        if (selectedReview != null) {
+            ReviewDataProvider.getInstance(project).prioritize(selectedReview, file);
+        }
+    }
+
+    /**
+     * Files scrolled into view are the ones the user is about to open
+     */
+    public void visibleFilesChanged(List<Review.File> files) {
+        if (selectedReview == null) return;
+        for (Review.File file : files) {
+            ReviewDataProvider.getInstance(project).prioritize(selectedReview, file);
+        }
+    }
+
     public Review selectedReview() {
         return selectedReview;
     }
@@ -292,7 +432,22 @@ public class ReviewPanelController {
         return selectedFiles;
     }
 
+    /**
+     * Brings back the comments journaled for the review but never published
+     */
+    private void restoreNewComments(Review review, List<Review.File> files) {
+        Map<String, List<Review.File.Comment>> journaled = CommentJournal.getInstance(project).comments(review.id);
+        for (Review.File file : files) {
+            List<Review.File.Comment> comments = journaled.get(file.fileId);
+            if (comments == null) continue;
+            for (Review.File.Comment comment : comments) comment.file = file;
+            newComments.put(file.fileId, comments);
+        }
+        newCommentsReviewId = review.id;
+    }
+
     private void clearNewComments() {
+        if (newCommentsReviewId != null) CommentJournal.getInstance(project).clear(newCommentsReviewId);
         newComments.clear();
     }
 
@@ -302,26 +457,30 @@ public class ReviewPanelController {
 
     public void loadNext() {
         if (hasNext()) {
+            // The page being left is adjacent to the new one, keep it for going back
+            prefetched.put(reviews.getOffset(), reviews);
             start = reviews.getOffset() + COUNT;
-            refreshReviews();
+            loadReviews();
         }
     }
 
     public void loadPrevious() {
         if (hasPrevious()) {
+            // The page being left is adjacent to the new one, keep it for going back
+            prefetched.put(reviews.getOffset(), reviews);
             start = reviews.getOffset() - COUNT;
-            refreshReviews();
+            loadReviews();
         }
     }
 
     public void loadFirst() {
         start = 0;
-        refreshReviews();
+        loadReviews();
     }
 
     public void loadLast() {
         start = (reviews.getTotal() / COUNT) * COUNT;
-        refreshReviews();
+        loadReviews();
     }
 
     public boolean hasNext() {
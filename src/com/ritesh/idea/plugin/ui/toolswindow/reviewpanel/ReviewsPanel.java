@@ -29,11 +29,14 @@ import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.ui.Splitter;
 import com.intellij.openapi.vcs.FilePath;
 import com.intellij.openapi.vcs.changes.Change;
-import com.intellij.openapi.vcs.changes.SimpleContentRevision;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.GuiUtils;
+import com.intellij.ui.SearchTextField;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.table.JBTable;
+import com.intellij.util.Consumer;
 import com.ritesh.idea.plugin.reviewboard.Review;
 import com.ritesh.idea.plugin.reviewboard.ReviewDataProvider;
 import com.ritesh.idea.plugin.state.SettingsPage;
@@ -43,10 +46,13 @@ import com.ritesh.idea.plugin.ui.diff.CommentsDiffTool;
 import com.ritesh.idea.plugin.ui.diff.ReviewDiffRequest;
 import com.ritesh.idea.plugin.ui.panels.DraftReviewPanel;
 import com.ritesh.idea.plugin.ui.toolswindow.ReviewChangesTreeList;
+import com.ritesh.idea.plugin.ui.toolswindow.ReviewContentRevision;
+import com.ritesh.idea.plugin.ui.toolswindow.ReviewRowSorter;
 import com.ritesh.idea.plugin.ui.toolswindow.ReviewTableModel;
 import com.ritesh.idea.plugin.ui.toolswindow.reviewpanel.ReviewPanelController.ReviewListFilter;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
@@ -66,7 +72,10 @@ public class ReviewsPanel extends JPanel {
 //    Messages.showWarningDialog("Svn is still in refresh. Please try again later.", "Alter");
     // TODO: Check for binary files
 
-    private JBTable reviewsTable = new JBTable();
+    private final ReviewTableModel reviewTableModel = new ReviewTableModel();
+    private final ReviewRowSorter reviewRowSorter = new ReviewRowSorter(reviewTableModel);
+    private JBTable reviewsTable = new JBTable(reviewTableModel);
+    private SearchTextField reviewsFilter = new SearchTextField(false);
     private ReviewChangesTreeList changesTree;
     private ComboBox statusComboBox = new ComboBox(new String[]{"all", "discarded", "pending", "submitted"});
     private ComboBox repositoryComboBox = new ComboBox(new String[]{"Select Repository"});
@@ -77,6 +86,10 @@ public class ReviewsPanel extends JPanel {
 
     private ReviewPanelController controller;
     private final Project project;
+    // Set while the rows change, whose selection events are not the user picking a review
+    private boolean updatingReviews;
+    // Review last handed to the controller; sorting moves its row without it being picked again
+    private String selectedReviewId;
 
     public ReviewsPanel(final Project project) {
         this.project = project;
@@ -84,22 +97,42 @@ public class ReviewsPanel extends JPanel {
         initUI();
     }
 
-    public void setReviewsList(final int pageNumber, final List<Review> reviews) {
-        ApplicationManager.getApplication().invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                reviewsTable.setModel(new ReviewTableModel(reviews));
-                reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUMMARY.getIndex()).setPreferredWidth(400);
-                reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUBMITTED_TO.getIndex()).setPreferredWidth(50);
-                reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUBMITTER.getIndex()).setPreferredWidth(50);
-                reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.LAST_MODIFIED.getIndex()).setPreferredWidth(50);
-                page.setText(String.valueOf(pageNumber));
-                GuiUtils.enableChildren(true, ReviewsPanel.this);
-            }
-        });
+    /**
+     * Must be called on the event dispatch thread, together with the controller taking the reviews
+     */
+    public void setReviewsList(int pageNumber, List<Review> reviews) {
+        String selectedId = getSelectedReviewId();
+        updatingReviews = true;
+        try {
+            reviewTableModel.reset(reviews);
+            selectReview(selectedId);
+            selectedReviewId = getSelectedReviewId();
+        } finally {
+            updatingReviews = false;
+        }
+        page.setText(String.valueOf(pageNumber));
+        GuiUtils.enableChildren(true, ReviewsPanel.this);
     }
 
-    public void setCurrentReview(List<Review.File> files) {
+    /**
+     * Updates the rows of the shown list in place instead of replacing the table model.
+     * Must be called on the event dispatch thread, together with the controller taking the reviews
+     */
+    public void updateReviewsList(int pageNumber, List<Review> reviews) {
+        String selectedId = getSelectedReviewId();
+        updatingReviews = true;
+        try {
+            reviewTableModel.update(reviews);
+            selectReview(selectedId);
+            selectedReviewId = getSelectedReviewId();
+        } finally {
+            updatingReviews = false;
+        }
+        page.setText(String.valueOf(pageNumber));
+        GuiUtils.enableChildren(true, ReviewsPanel.this);
+    }
+
+    public void setCurrentReview(Review review, List<Review.File> files) {
         final List<Change> changes = new ArrayList<>();
         for (Review.File file : files) {
             FilePath srcFilePath;
@@ -120,8 +153,8 @@ public class ReviewsPanel extends JPanel {
                     throw new RuntimeException(e1);
                 }
             }
-            SimpleContentRevision original = new SimpleContentRevision(file.srcFileContents, srcFilePath, file.sourceRevision);
-            SimpleContentRevision patched = new SimpleContentRevision(file.dstFileContents, patchFilePath, "New Change");
+            ContentRevision original = new ReviewContentRevision(project, review, file, true, srcFilePath, file.sourceRevision);
+            ContentRevision patched = new ReviewContentRevision(project, review, file, false, patchFilePath, "New Change");
             changes.add(new Change(original, patched));
         }
         ApplicationManager.getApplication().invokeLater(new Runnable() {
@@ -176,14 +209,24 @@ public class ReviewsPanel extends JPanel {
     }
 
     private void loadFileComments() {
-        final Change selectedChange = changesTree.getSelectedChanges().get(0);
+        Review.File file = selectedFile();
+        if (file != null) controller.loadComments(file);
+    }
+
+    private Review.File selectedFile() {
+        List<Change> selectedChanges = changesTree.getSelectedChanges();
         List<Review.File> selectedFiles = controller.selectedFiles();
-        for (Review.File file : selectedFiles) {
-            if (file.srcFileName.equals(selectedChange.getBeforeRevision().getFile().getPath())) {
-                controller.loadComments(file);
-                break;
+        if (selectedChanges.isEmpty() || selectedFiles == null) return null;
+        return fileOf(selectedChanges.get(0), selectedFiles);
+    }
+
+    private static Review.File fileOf(Change change, List<Review.File> files) {
+        for (Review.File file : files) {
+            if (file.srcFileName.equals(change.getBeforeRevision().getFile().getPath())) {
+                return file;
             }
         }
+        return null;
     }
 
     public void showCommentsDiff(final Review.File file, final List<Review.File.Comment> comments) {
@@ -204,8 +247,19 @@ public class ReviewsPanel extends JPanel {
         });
     }
 
-    private int getSelectedReviewIndex() {
-        return reviewsTable.getSelectedRow();
+    private String getSelectedReviewId() {
+        int selectedRow = reviewsTable.getSelectedRow();
+        return selectedRow < 0 ? null : reviewTableModel.idAt(reviewsTable.convertRowIndexToModel(selectedRow));
+    }
+
+    private void selectReview(String id) {
+        int row = id == null ? -1 : reviewTableModel.rowOf(id);
+        int viewRow = row < 0 ? -1 : reviewsTable.convertRowIndexToView(row);
+        if (viewRow < 0) {
+            reviewsTable.clearSelection();
+        } else {
+            reviewsTable.setRowSelectionInterval(viewRow, viewRow);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -236,11 +290,25 @@ public class ReviewsPanel extends JPanel {
 
         reviewsTable.setRowHeight(20);
         reviewsTable.setShowGrid(false);
+        reviewsTable.setRowSorter(reviewRowSorter);
+        reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUMMARY.getIndex()).setPreferredWidth(400);
+        reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUBMITTED_TO.getIndex()).setPreferredWidth(50);
+        reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.SUBMITTER.getIndex()).setPreferredWidth(50);
+        reviewsTable.getColumnModel().getColumn(ReviewTableModel.Columns.LAST_MODIFIED.getIndex()).setPreferredWidth(50);
+        reviewsFilter.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(DocumentEvent e) {
+                reviewRowSorter.setFilterText(reviewsFilter.getText());
+            }
+        });
         reviewsTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent e) {
-                if (e.getValueIsAdjusting() || getSelectedReviewIndex() < 0) return;
-                controller.selectedReviewChanged(getSelectedReviewIndex());
+                if (e.getValueIsAdjusting() || updatingReviews) return;
+                String selectedId = getSelectedReviewId();
+                if (selectedId == null || selectedId.equals(selectedReviewId)) return;
+                selectedReviewId = selectedId;
+                controller.selectedReviewChanged(selectedId);
             }
         });
 
@@ -256,6 +324,26 @@ public class ReviewsPanel extends JPanel {
                 controller.repositoryChanged((String) repositoryComboBox.getSelectedItem());
             }
         });
+        changesTree.addSelectionListener(new Runnable() {
+            @Override
+            public void run() {
+                Review.File file = selectedFile();
+                if (file != null) controller.selectedFileChanged(file);
+            }
+        });
+        changesTree.addVisibleChangesListener(new Consumer<List<Change>>() {
+            @Override
+            public void consume(List<Change> changes) {
+                List<Review.File> files = controller.selectedFiles();
+                if (files == null) return;
+                List<Review.File> visibleFiles = new ArrayList<>();
+                for (Change change : changes) {
+                    Review.File file = fileOf(change, files);
+                    if (file != null) visibleFiles.add(file);
+                }
+                controller.visibleFilesChanged(visibleFiles);
+            }
+        });
         changesTree.setDoubleClickHandler(new Runnable() {
             @Override
             public void run() {
@@ -351,6 +439,8 @@ public class ReviewsPanel extends JPanel {
         actionGroup.add(new Separator());
         actionGroup.add(new CustomComponentActionBase(repositoryComboBox));
         actionGroup.add(new Separator());
+        actionGroup.add(new CustomComponentActionBase(reviewsFilter));
+        actionGroup.add(new Separator());
         actionGroup.add(new ToggleAction("Incoming", "Show incoming reviews", AllIcons.Ide.IncomingChangesOn) {
             @Override
             public boolean isSelected(AnActionEvent anActionEvent) {
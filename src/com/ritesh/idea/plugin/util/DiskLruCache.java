@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Directory of files bounded in total size, evicting the least recently used ones. Entries are written to a
+ * temporary file first and moved in place atomically, so a reader never sees a partial one. An entry being read
+ * is not evicted until its stream is closed, which would leave the file behind where it can not be deleted.
+ */
+public class DiskLruCache {
+    private static final Logger LOG = Logger.getInstance(DiskLruCache.class);
+
+    private final File directory;
+    private final long maxSize;
+    private final String[] extensions;
+    // Entry name -> size, in least recently used order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Entry name -> number of streams open on it
+    private final Map<String, Integer> readers = new HashMap<>();
+    private long size;
+
+    /**
+     * @param extensions of the entries, any other file in the directory being a leftover that gets deleted
+     */
+    public DiskLruCache(File directory, long maxSize, String... extensions) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.extensions = extensions;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LOG.warn("Unable to create cache directory " + directory);
+        }
+        loadIndex();
+    }
+
+    /**
+     * Name of the entry of a key, made of its hash so that any key makes a valid file name
+     */
+    public static String name(String key, String extension) {
+        return DigestUtils.sha1Hex(key) + extension;
+    }
+
+    public synchronized boolean contains(String name) {
+        return entries.get(name) != null;
+    }
+
+    /**
+     * @return the contents of the entry, kept from eviction until closed, or null when there is no such entry
+     */
+    @Nullable
+    public InputStream open(final String name) throws IOException {
+        File file = new File(directory, name);
+        InputStream in;
+        synchronized (this) {
+            if (entries.get(name) == null) return null;
+            try {
+                in = new FileInputStream(file);
+            } catch (IOException e) {
+                remove(name);
+                throw e;
+            }
+            Integer count = readers.get(name);
+            readers.put(name, count == null ? 1 : count + 1);
+        }
+        if (!file.setLastModified(System.currentTimeMillis())) {
+            LOG.debug("Unable to touch " + file);
+        }
+        return new FilterInputStream(in) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) return;
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    released(name);
+                }
+            }
+        };
+    }
+
+    /**
+     * Temporary file to write an entry into before {@link #commit}ting it
+     */
+    public File createTempFile(String name) throws IOException {
+        return File.createTempFile(name, ".tmp", directory);
+    }
+
+    /**
+     * Moves the written temporary file in place as the entry, replacing any previous one
+     */
+    public void commit(String name, File tempFile) throws IOException {
+        File file = new File(directory, name);
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            Long previous = entries.put(name, file.length());
+            size += file.length() - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    /**
+     * Drops the entry, e.g. once found unreadable; left alone while another stream still reads it
+     */
+    public synchronized void remove(String name) {
+        if (readers.containsKey(name)) return;
+        Long previous = entries.remove(name);
+        if (previous != null) size -= previous;
+        FileUtil.delete(new File(directory, name));
+    }
+
+    private synchronized void released(String name) {
+        Integer count = readers.get(name);
+        if (count == null || count <= 1) {
+            readers.remove(name);
+        } else {
+            readers.put(name, count - 1);
+        }
+        // Evictions skipped while it was read
+        if (size > maxSize) evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (readers.containsKey(eldest.getKey())) continue;
+            size -= eldest.getValue();
+            iterator.remove();
+            FileUtil.delete(new File(directory, eldest.getKey()));
+        }
+    }
+
+    private synchronized void loadIndex() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(o1.lastModified(), o2.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (isEntry(file.getName())) {
+                entries.put(file.getName(), file.length());
+                size += file.length();
+            } else {
+                // Leftover from an interrupted write
+                FileUtil.delete(file);
+            }
+        }
+        evict();
+    }
+
+    private boolean isEntry(String name) {
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) return true;
+        }
+        return false;
+    }
+}
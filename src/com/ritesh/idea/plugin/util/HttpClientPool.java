@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.net.ssl.CertificateManager;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive connection pool shared by all the requests made to a single review board server.
+ */
+public class HttpClientPool implements Closeable {
+    private static final Logger LOG = Logger.getInstance(HttpClientPool.class);
+
+    public static final int DEFAULT_MAX_PER_ROUTE = 8;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final CookieStore cookieStore = new BasicCookieStore();
+    private final TrafficStats trafficStats = new TrafficStats();
+    private final ScheduledFuture<?> evictor;
+
+    public HttpClientPool() {
+        this(DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public HttpClientPool(int maxPerRoute, final long keepAliveMillis, final long idleTimeoutMillis) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(CertificateManager.getInstance().getSslContext()))
+                .build();
+        connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxTotal(maxPerRoute * 2);
+
+        client = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultCookieStore(cookieStore)
+                // Compression is set up by hand to count the response bytes both before and after decompressing
+                .disableContentCompression()
+                .addInterceptorLast(new RequestAcceptEncoding())
+                .addInterceptorLast(trafficStats.requestCounter())
+                .addInterceptorLast(trafficStats.responseCounter(false))
+                .addInterceptorLast(new ResponseContentEncoding())
+                .addInterceptorLast(trafficStats.responseCounter(true))
+                .setDefaultRequestConfig(RequestConfig.copy(RequestConfig.DEFAULT)
+                        .setConnectTimeout(HttpRequestBuilder.CONNECT_TIMEOUT).build())
+                .setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+                    @Override
+                    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                        // Honour the server's Keep-Alive header, but never hold a socket longer than configured
+                        long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+                    }
+                })
+                .build();
+
+        evictor = JobScheduler.getScheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }, idleTimeoutMillis, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public CloseableHttpClient client() {
+        return client;
+    }
+
+    /**
+     * Cookies, the login session among them, shared by all the requests of the pool
+     */
+    public CookieStore cookieStore() {
+        return cookieStore;
+    }
+
+    public TrafficStats trafficStats() {
+        return trafficStats;
+    }
+
+    @Override
+    public void close() {
+        evictor.cancel(false);
+        String traffic = trafficStats.report();
+        if (!traffic.isEmpty()) LOG.info("Review board traffic\n" + traffic);
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOG.warn(e);
+        }
+    }
+}
@@ -18,25 +18,30 @@ package com.ritesh.idea.plugin.util;
 
 import com.google.common.io.CharStreams;
 import com.google.gson.Gson;
-import com.intellij.util.net.ssl.CertificateManager;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
 import com.ritesh.idea.plugin.exception.UnexpectedResponseException;
-import org.apache.commons.lang.StringUtils;
+import org.apache.http.Consts;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.io.*;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,14 +51,21 @@ import java.util.List;
 public class HttpRequestBuilder {
     public static final int CONNECT_TIMEOUT = 15000;
 
+    // Gson caches type adapters per instance, so all the responses share a single one
+    private static final Gson GSON = new GsonBuilder().create();
+    private static final int MAX_RECORDED_CHARS = 16 * 1024;
+
+    private CloseableHttpClient client;
     private HttpRequestBase request;
     private URIBuilder urlBuilder = new URIBuilder();
     private String route = "";
     private List<NameValuePair> formParams = new ArrayList<>();
     private String fileParam;
     private String fileName;
-    private byte[] fileBytes;
+    private File file;
     private RequestConfig requestConfig;
+    private ValidatorCache validatorCache;
+    private SessionAuthenticator authenticator;
 
     public HttpRequestBuilder route(String value) {
         route = route + "/" + value;
@@ -75,10 +87,13 @@ public class HttpRequestBuilder {
         return this;
     }
 
-    public HttpRequestBuilder file(String param, String name, byte[] bytes) {
+    /**
+     * Sends the file as a multipart part, streamed from disk while the request is written
+     */
+    public HttpRequestBuilder file(String param, String name, File file) {
         fileParam = param;
         fileName = name;
-        fileBytes = bytes;
+        this.file = file;
         return this;
     }
 
@@ -87,40 +102,70 @@ public class HttpRequestBuilder {
         return this;
     }
 
+    /**
+     * Revalidates the request against the cache with If-None-Match/If-Modified-Since
+     * and returns the cached model when the server answers 304 Not Modified
+     */
+    public HttpRequestBuilder conditional(ValidatorCache cache) {
+        validatorCache = cache;
+        return this;
+    }
+
+    /**
+     * Authenticates with the session when there is one, logging in again if it expired
+     */
+    public HttpRequestBuilder auth(SessionAuthenticator authenticator) {
+        this.authenticator = authenticator;
+        return this;
+    }
+
+    /**
+     * Neither sends nor stores cookies, so that the request can not pick up or replace the pooled session
+     */
+    public HttpRequestBuilder withoutCookies() {
+        requestConfig = RequestConfig.copy(requestConfig).setCookieSpec(CookieSpecs.IGNORE_COOKIES).build();
+        return this;
+    }
+
     public HttpRequestBuilder header(String name, String value) {
         request.addHeader(name, value);
         return this;
     }
 
-    public static HttpRequestBuilder post(String url) throws URISyntaxException {
+    public static HttpRequestBuilder post(CloseableHttpClient client, String url) throws URISyntaxException {
         HttpRequestBuilder builder = new HttpRequestBuilder();
+        builder.client = client;
         builder.urlBuilder = new URIBuilder(url);
         builder.request = new HttpPost();
         return builder;
     }
 
-    public static HttpRequestBuilder get(String url) throws URISyntaxException {
+    public static HttpRequestBuilder get(CloseableHttpClient client, String url) throws URISyntaxException {
         HttpRequestBuilder builder = new HttpRequestBuilder();
+        builder.client = client;
         builder.urlBuilder = new URIBuilder(url);
         builder.request = new HttpGet();
         return builder;
     }
 
 
-    public static HttpRequestBuilder put(String url) throws URISyntaxException {
+    public static HttpRequestBuilder put(CloseableHttpClient client, String url) throws URISyntaxException {
         HttpRequestBuilder builder = new HttpRequestBuilder();
+        builder.client = client;
         builder.urlBuilder = new URIBuilder(url);
         builder.request = new HttpPut();
         return builder;
     }
 
     private HttpRequestBase getHttpRequest() throws URISyntaxException, UnsupportedEncodingException {
+        if (request.getURI() != null) return request;
         if (!route.isEmpty()) {
             String path = urlBuilder.getPath() + route;
             path = path.replace("//", "/");
             urlBuilder.setPath(path);
         }
         request.setURI(urlBuilder.build());
+        request.setConfig(requestConfig);
         if (request instanceof HttpPost) {
             if (fileParam != null) {
                 MultipartEntityBuilder builder = MultipartEntityBuilder.create();
@@ -128,7 +173,7 @@ public class HttpRequestBuilder {
                     builder.addTextBody(formParam.getName(), formParam.getValue());
                 }
                 HttpEntity entity = builder
-                        .addBinaryBody(fileParam, fileBytes, ContentType.MULTIPART_FORM_DATA, fileName)
+                        .addPart(fileParam, new FileBody(file, ContentType.DEFAULT_BINARY, fileName))
                         .build();
                 ((HttpPost) request).setEntity(entity);
             } else if (!formParams.isEmpty()) {
@@ -145,31 +190,64 @@ public class HttpRequestBuilder {
 
 
     public <T> T asJson(Class<T> clazz) throws IOException, URISyntaxException {
-        try (CloseableHttpClient client = HttpClientBuilder.create()
-                .setDefaultRequestConfig(requestConfig)
-                .setSslcontext(CertificateManager.getInstance().getSslContext())
-                .build()) {
-            HttpRequestBase request = getHttpRequest();
-            CloseableHttpResponse response = client.execute(request);
-            String content = CharStreams.toString(new InputStreamReader(response.getEntity().getContent()));
+        HttpRequestBase request = getHttpRequest();
+        String cacheKey = null;
+        ValidatorCache.Entry cached = null;
+        if (validatorCache != null && request instanceof HttpGet) {
+            cacheKey = request.getURI().toString();
+            cached = validatorCache.get(cacheKey);
+            if (cached != null && clazz.isInstance(cached.model)) {
+                if (cached.etag != null) request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+                if (cached.lastModified != null) request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            } else {
+                cached = null;
+            }
+        }
+
+        RequestCanceller.register(request);
+        try (CloseableHttpResponse response = execute(request)) {
+            if (cached != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                EntityUtils.consume(response.getEntity());
+                return clazz.cast(cached.model);
+            }
+            HttpEntity entity = response.getEntity();
+            Charset charset = ContentType.getOrDefault(entity).getCharset();
+            RecordingReader reader = new RecordingReader(new InputStreamReader(entity.getContent(),
+                    charset == null ? Consts.UTF_8 : charset));
+            T result;
             try {
-                if (StringUtils.isEmpty(content)) throw new Exception("Empty response recieved");
-                return new Gson().fromJson(content, clazz);
+                result = GSON.fromJson(new JsonReader(reader), clazz);
+                if (result == null) throw new Exception("Empty response recieved");
+                // Drain trailing bytes so the connection can be reused
+                EntityUtils.consume(entity);
             } catch (Exception e) {
-                throw new UnexpectedResponseException("Status: " + response.getStatusLine() + ", Response : " + content, e);
+                throw new UnexpectedResponseException("Status: " + response.getStatusLine() + ", Response : "
+                        + reader.recorded(), e);
+            }
+            if (cacheKey != null) {
+                Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+                Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+                if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK && (etag != null || lastModified != null)) {
+                    validatorCache.put(cacheKey, new ValidatorCache.Entry(etag == null ? null : etag.getValue(),
+                            lastModified == null ? null : lastModified.getValue(), result));
+                } else {
+                    validatorCache.remove(cacheKey);
+                }
             }
+            return result;
+        } finally {
+            RequestCanceller.unregister(request);
         }
     }
 
 
     public String asString() throws IOException, URISyntaxException {
-        try (CloseableHttpClient client = HttpClientBuilder.create()
-                .setSslcontext(CertificateManager.getInstance().getSslContext())
-                .setDefaultRequestConfig(requestConfig)
-                .build()) {
-            HttpRequestBase request = getHttpRequest();
-            CloseableHttpResponse response = client.execute(request);
+        HttpRequestBase request = getHttpRequest();
+        RequestCanceller.register(request);
+        try (CloseableHttpResponse response = execute(request)) {
             return CharStreams.toString(new InputStreamReader(response.getEntity().getContent()));
+        } finally {
+            RequestCanceller.unregister(request);
         }
     }
 
@@ -177,6 +255,69 @@ public class HttpRequestBuilder {
         return getHttpRequest();
     }
 
+    /**
+     * Executes the request; the caller has to close the response
+     */
+    public CloseableHttpResponse execute() throws IOException, URISyntaxException {
+        return execute(getHttpRequest());
+    }
+
+    private CloseableHttpResponse execute(HttpRequestBase request) throws IOException {
+        if (authenticator == null) return client.execute(request);
+        authenticator.prepare(request);
+        CloseableHttpResponse response = client.execute(request);
+        if (authenticator.expired(request, response)) {
+            EntityUtils.consume(response.getEntity());
+            response.close();
+            authenticator.login(request);
+            response = client.execute(request);
+            authenticator.expired(request, response);
+        }
+        return response;
+    }
+
+    /**
+     * Keeps the beginning of the response being parsed so that parse failures can still be reported
+     */
+    private static class RecordingReader extends FilterReader {
+        private final StringBuilder recorded = new StringBuilder();
+
+        RecordingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1 && recorded.length() < MAX_RECORDED_CHARS) recorded.append((char) c);
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (read > 0 && recorded.length() < MAX_RECORDED_CHARS) {
+                recorded.append(cbuf, off, Math.min(read, MAX_RECORDED_CHARS - recorded.length()));
+            }
+            return read;
+        }
+
+        String recorded() {
+            if (recorded.length() < MAX_RECORDED_CHARS) {
+                // Pick up whatever the parser did not consume
+                try {
+                    char[] buffer = new char[4096];
+                    int read = 0;
+                    while (recorded.length() < MAX_RECORDED_CHARS && read != -1) {
+                        read = read(buffer, 0, buffer.length);
+                    }
+                } catch (IOException ignore) {
+                }
+            }
+            return recorded.toString();
+        }
+    }
+
     private HttpRequestBuilder() {
         requestConfig = RequestConfig.copy(RequestConfig.DEFAULT).setConnectTimeout(CONNECT_TIMEOUT).build();
     }
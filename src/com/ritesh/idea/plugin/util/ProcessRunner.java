@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs an external process, pumping its stdout into a stream and its stderr into a bounded buffer concurrently,
+ * so that neither pipe can fill up and stall the process. The process is killed when it outlives the timeout
+ * or the progress indicator gets cancelled.
+ */
+public class ProcessRunner {
+    private static final Logger LOG = Logger.getInstance(ProcessRunner.class);
+
+    /**
+     * Overridable with the {@code reviewboard.process.timeout} system property, in seconds
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS =
+            TimeUnit.SECONDS.toMillis(Long.getLong("reviewboard.process.timeout", 300));
+    private static final int MAX_ERROR_BYTES = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final long timeoutMillis;
+
+    public ProcessRunner() {
+        this(DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public ProcessRunner(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @throws IOException when the process can not be started, times out or exits with a non zero code;
+     *                     the message carries the beginning of its stderr
+     */
+    public void run(ProcessBuilder builder, OutputStream out, @Nullable ProgressIndicator indicator) throws IOException {
+        String name = new File(builder.command().get(0)).getName();
+        long started = System.currentTimeMillis();
+        Process process = builder.start();
+        process.getOutputStream().close();
+
+        BoundedBuffer errors = new BoundedBuffer(MAX_ERROR_BYTES);
+        Future<Long> stdout = pump(process.getInputStream(), out);
+        Future<Long> stderr = pump(process.getErrorStream(), errors);
+        try {
+            int exitCode = waitFor(process, name, started, indicator);
+            long bytes = get(stdout, started);
+            get(stderr, started);
+
+            long elapsed = Math.max(System.currentTimeMillis() - started, 1);
+            LOG.info(String.format("%s : %s in %d ms (%s/s)", name, StringUtil.formatFileSize(bytes), elapsed,
+                    StringUtil.formatFileSize(bytes * 1000 / elapsed)));
+            if (exitCode != 0) {
+                throw new IOException(name + " exited with code " + exitCode + " : " + errors);
+            }
+        } finally {
+            process.destroy();
+            stdout.cancel(true);
+            stderr.cancel(true);
+        }
+    }
+
+    private int waitFor(Process process, String name, long started, @Nullable ProgressIndicator indicator)
+            throws IOException {
+        while (true) {
+            try {
+                return process.exitValue();
+            } catch (IllegalThreadStateException running) {
+                // still running
+            }
+            if (indicator != null && indicator.isCanceled()) {
+                process.destroy();
+                throw new ProcessCanceledException();
+            }
+            if (System.currentTimeMillis() - started > timeoutMillis) {
+                process.destroy();
+                throw new IOException(name + " did not finish within " + timeoutMillis / 1000 + " seconds");
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(name + " interrupted");
+            }
+        }
+    }
+
+    /**
+     * Waits for a pump to drain what is left in the pipe after the process exited
+     */
+    private long get(Future<Long> pump, long started) throws IOException {
+        try {
+            long remaining = Math.max(timeoutMillis - (System.currentTimeMillis() - started), POLL_MILLIS);
+            return pump.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProcessCanceledException) throw (ProcessCanceledException) e.getCause();
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Output of the process was not closed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static Future<Long> pump(final InputStream in, final OutputStream out) {
+        return ApplicationManager.getApplication().executeOnPooledThread(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                long count = 0;
+                byte[] buffer = new byte[8192];
+                try (InputStream input = in) {
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        count += read;
+                    }
+                }
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Keeps the first bytes written to it and drops the rest
+     */
+    private static class BoundedBuffer extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final int limit;
+        private boolean truncated;
+
+        BoundedBuffer(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            int accepted = Math.min(len, limit - buffer.size());
+            if (accepted > 0) buffer.write(b, off, accepted);
+            if (accepted < len) truncated = true;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return buffer.toString() + (truncated ? "..." : "");
+        }
+    }
+}
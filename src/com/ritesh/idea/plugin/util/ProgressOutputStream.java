@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes written through it and shows the count and the throughput on the progress indicator,
+ * stopping the writer once the indicator is cancelled.
+ */
+public class ProgressOutputStream extends FilterOutputStream {
+    private static final long REPORT_INTERVAL_BYTES = 64 * 1024;
+
+    private final ProgressIndicator indicator;
+    private final long started = System.currentTimeMillis();
+    private long count;
+    private long reported;
+
+    public ProgressOutputStream(OutputStream out, ProgressIndicator indicator) {
+        super(out);
+        this.indicator = indicator;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        written(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        written(len);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void written(long bytes) {
+        count += bytes;
+        if (count - reported >= REPORT_INTERVAL_BYTES) {
+            reported = count;
+            indicator.checkCanceled();
+            long elapsed = Math.max(System.currentTimeMillis() - started, 1);
+            indicator.setText2(StringUtil.formatFileSize(count) + " (" + StringUtil.formatFileSize(count * 1000 / elapsed) + "/s)");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.openapi.wm.ex.ProgressIndicatorEx;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aborts in-flight http requests once their progress indicator gets cancelled. Each indicator gets a single
+ * state delegate, whose cancel aborts the requests then in flight under it, so nothing polls for cancellation.
+ */
+public class RequestCanceller {
+    // Requests in flight by indicator; the indicators are only weakly held
+    private static final Map<ProgressIndicator, Set<HttpRequestBase>> byIndicator = new WeakHashMap<>();
+    private static final Map<HttpRequestBase, Set<HttpRequestBase>> registered = new ConcurrentHashMap<>();
+
+    /**
+     * Ties the request to the progress indicator of the calling thread, if it has one that can report its
+     * cancellation. Must be paired with {@link #unregister(HttpRequestBase)}.
+     */
+    public static void register(HttpRequestBase request) {
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        if (indicator == null) return;
+        indicator.checkCanceled();
+        if (!(indicator instanceof ProgressIndicatorEx)) return;
+
+        Set<HttpRequestBase> requests;
+        synchronized (byIndicator) {
+            requests = byIndicator.get(indicator);
+            if (requests == null) {
+                requests = new HashSet<>();
+                byIndicator.put(indicator, requests);
+                ((ProgressIndicatorEx) indicator).addStateDelegate(new Aborter(requests));
+            }
+        }
+        synchronized (requests) {
+            requests.add(request);
+        }
+        registered.put(request, requests);
+        // Cancelled before the delegate could see the request
+        if (indicator.isCanceled()) request.abort();
+    }
+
+    public static void unregister(HttpRequestBase request) {
+        Set<HttpRequestBase> requests = registered.remove(request);
+        if (requests == null) return;
+        synchronized (requests) {
+            requests.remove(request);
+        }
+    }
+
+    /**
+     * Follows the state of an indicator, aborting its requests when it gets cancelled
+     */
+    private static class Aborter extends ProgressIndicatorBase {
+        private final Set<HttpRequestBase> requests;
+
+        Aborter(Set<HttpRequestBase> requests) {
+            this.requests = requests;
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            List<HttpRequestBase> inFlight;
+            synchronized (requests) {
+                inFlight = new ArrayList<>(requests);
+            }
+            for (HttpRequestBase request : inFlight) {
+                request.abort();
+            }
+        }
+    }
+
+    private RequestCanceller() {
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.cookie.Cookie;
+
+import java.util.Date;
+
+/**
+ * Sends the Basic credentials only until the server has handed out a session cookie, and then rides on the session,
+ * sparing the server a password check per request. A request rejected because the session expired is resent
+ * once with the credentials, which logs in again.
+ */
+public class SessionAuthenticator {
+    public static final String SESSION_COOKIE = "rbsessionid";
+
+    private final String authorization;
+    private final CookieStore cookieStore;
+    private volatile boolean session;
+
+    public SessionAuthenticator(String userName, String password, CookieStore cookieStore) {
+        this.authorization = basic(userName, password);
+        this.cookieStore = cookieStore;
+    }
+
+    public static String basic(String userName, String password) {
+        return "Basic " + Base64.encodeBase64String((userName + ":" + password).getBytes());
+    }
+
+    void prepare(HttpRequestBase request) {
+        if (!session) login(request);
+    }
+
+    void login(HttpRequestBase request) {
+        request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+    }
+
+    /**
+     * @return true when the request was rejected without credentials and has to be resent with them
+     */
+    boolean expired(HttpRequestBase request, HttpResponse response) {
+        boolean withCredentials = request.containsHeader(HttpHeaders.AUTHORIZATION);
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_UNAUTHORIZED) {
+            session = false;
+            return !withCredentials;
+        }
+        if (withCredentials) session = hasSession();
+        return false;
+    }
+
+    private boolean hasSession() {
+        Date now = new Date();
+        for (Cookie cookie : cookieStore.getCookies()) {
+            if (SESSION_COOKIE.equals(cookie.getName()) && !cookie.isExpired(now)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.apache.http.*;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.*;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per endpoint counters of the request and response body bytes, the latter both as received on the wire
+ * and after decompression. Endpoints are request paths with the numeric ids folded, e.g.
+ * {@code /api/review-requests/{id}/diffs/}.
+ */
+public class TrafficStats {
+    private static final String ENDPOINT = "reviewboard.endpoint";
+
+    public static class Counter {
+        public final AtomicLong requests = new AtomicLong();
+        public final AtomicLong bytesOut = new AtomicLong();
+        public final AtomicLong bytesIn = new AtomicLong();
+        public final AtomicLong bytesDecoded = new AtomicLong();
+    }
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the request and the bytes of its body
+     */
+    public HttpRequestInterceptor requestCounter() {
+        return new HttpRequestInterceptor() {
+            @Override
+            public void process(HttpRequest request, HttpContext context) {
+                String endpoint = endpoint(request.getRequestLine().getUri());
+                context.setAttribute(ENDPOINT, endpoint);
+                final Counter counter = counter(endpoint);
+                counter.requests.incrementAndGet();
+                if (request instanceof HttpEntityEnclosingRequest) {
+                    HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+                    if (enclosing.getEntity() != null) {
+                        enclosing.setEntity(new HttpEntityWrapper(enclosing.getEntity()) {
+                            @Override
+                            public void writeTo(OutputStream out) throws IOException {
+                                super.writeTo(new CountingOutputStream(out, counter.bytesOut));
+                            }
+                        });
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Counts the response body as it is read; to be placed before the decompression for the wire bytes
+     * and after it for the decoded ones
+     */
+    public HttpResponseInterceptor responseCounter(final boolean decoded) {
+        return new HttpResponseInterceptor() {
+            @Override
+            public void process(HttpResponse response, HttpContext context) {
+                Object endpoint = context.getAttribute(ENDPOINT);
+                if (endpoint == null || response.getEntity() == null) return;
+                Counter counter = counter((String) endpoint);
+                final AtomicLong bytes = decoded ? counter.bytesDecoded : counter.bytesIn;
+                response.setEntity(new HttpEntityWrapper(response.getEntity()) {
+                    @Override
+                    public InputStream getContent() throws IOException {
+                        return new CountingInputStream(super.getContent(), bytes);
+                    }
+
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException {
+                        super.writeTo(new CountingOutputStream(out, bytes));
+                    }
+                });
+            }
+        };
+    }
+
+    public Map<String, Counter> counters() {
+        return new TreeMap<>(counters);
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : counters().entrySet()) {
+            Counter counter = entry.getValue();
+            report.append(String.format("%s : %d requests, %s out, %s in (%s decoded)%n", entry.getKey(),
+                    counter.requests.get(), StringUtil.formatFileSize(counter.bytesOut.get()),
+                    StringUtil.formatFileSize(counter.bytesIn.get()),
+                    StringUtil.formatFileSize(counter.bytesDecoded.get())));
+        }
+        return report.toString();
+    }
+
+    private Counter counter(String endpoint) {
+        Counter counter = counters.get(endpoint);
+        if (counter == null) {
+            Counter existing = counters.putIfAbsent(endpoint, counter = new Counter());
+            if (existing != null) counter = existing;
+        }
+        return counter;
+    }
+
+    static String endpoint(String uri) {
+        int query = uri.indexOf('?');
+        if (query >= 0) uri = uri.substring(0, query);
+        int scheme = uri.indexOf("://");
+        if (scheme >= 0) {
+            int path = uri.indexOf('/', scheme + 3);
+            uri = path >= 0 ? uri.substring(path) : "/";
+        }
+        return uri.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong bytes;
+
+        CountingInputStream(InputStream in, AtomicLong bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) bytes.incrementAndGet();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) bytes.addAndGet(read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytes.addAndGet(skipped);
+            return skipped;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong bytes;
+
+        CountingOutputStream(OutputStream out, AtomicLong bytes) {
+            super(out);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes.addAndGet(len);
+        }
+    }
+}
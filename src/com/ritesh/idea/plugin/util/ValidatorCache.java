@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ritesh.idea.plugin.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the ETag/Last-Modified validators and the parsed response of GET requests,
+ * so they can be revalidated with a conditional request and served from memory on 304.
+ */
+public class ValidatorCache {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    public static class Entry {
+        public final String etag;
+        public final String lastModified;
+        public final Object model;
+
+        public Entry(String etag, String lastModified, Object model) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.model = model;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    public ValidatorCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ValidatorCache(final int maxEntries) {
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Entry get(String uri) {
+        return entries.get(uri);
+    }
+
+    public synchronized void put(String uri, Entry entry) {
+        entries.put(uri, entry);
+    }
+
+    public synchronized void remove(String uri) {
+        entries.remove(uri);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.diff;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class PatchHeaderStreamTest {
+    private static final String PATCH = "Index: /work/repo/src/A.java\n"
+            + "===================================================================\n"
+            + "--- /work/repo/src/A.java\t(revision 12)\n"
+            + "+++ /work/repo/src/A.java\t(working copy)\n"
+            + "@@ -1 +1 @@\n"
+            + "--- removed line\n"
+            + "+++ added line";
+
+    @Test
+    public void headerPathsAreMadeRelativeAndPrefixed() throws IOException {
+        assertEquals("Index: trunk/src/A.java\n"
+                + "===================================================================\n"
+                + "--- trunk/src/A.java\t(revision 12)\n"
+                + "+++ trunk/src/A.java\t(working copy)\n"
+                + "@@ -1 +1 @@\n"
+                + "--- removed line\n"
+                + "+++ added line", rewrite(PATCH, "/work/repo", "trunk/"));
+    }
+
+    @Test
+    public void relativeHeadersAreKept() throws IOException {
+        String patch = "Index: src/A.java\n--- src/A.java\n+++ src/A.java\n@@ -1 +1 @@\n";
+        assertEquals(patch, rewrite(patch, "/work/repo/", ""));
+    }
+
+    @Test
+    public void linesSplitAcrossWritesAreRewritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PatchHeaderStream stream = new PatchHeaderStream(out, "/work/repo", "");
+        byte[] bytes = PATCH.getBytes(CharsetToolkit.UTF8_CHARSET);
+        for (int i = 0; i < bytes.length; i += 5) {
+            stream.write(bytes, i, Math.min(5, bytes.length - i));
+        }
+        stream.close();
+        assertEquals(rewrite(PATCH, "/work/repo", ""), out.toString("UTF-8"));
+    }
+
+    @Test(expected = IOException.class)
+    public void pathsOutsideTheRootFail() throws IOException {
+        rewrite("Index: /elsewhere/A.java\n", "/work/repo", "");
+    }
+
+    @Test(expected = IOException.class)
+    public void windowsPathsOutsideTheRootFail() throws IOException {
+        rewrite("Index: D:/elsewhere/A.java\n", "C:/work/repo", "");
+    }
+
+    private static String rewrite(String patch, String rootPath, String prefix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PatchHeaderStream stream = new PatchHeaderStream(out, rootPath, prefix);
+        stream.write(patch.getBytes(CharsetToolkit.UTF8_CHARSET));
+        stream.close();
+        return out.toString("UTF-8");
+    }
+}
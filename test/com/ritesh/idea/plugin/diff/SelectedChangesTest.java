@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.diff;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SelectedChangesTest {
+
+    @Test
+    public void relativePathsUseForwardSlashes() {
+        File root = new File("repo");
+        List<File> files = Arrays.asList(new File(root, "README"), new File(new File(new File(root, "src"), "main"), "A.java"));
+
+        assertEquals(Arrays.asList("README", "src/main/A.java"), SelectedChanges.relativePaths(root, files));
+    }
+
+    @Test
+    public void partitionPacksGroupsUpToTheSize() {
+        List<List<Integer>> groups = Arrays.asList(Arrays.asList(1), Arrays.asList(2, 3), Arrays.asList(4), Arrays.asList(5));
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5)), SelectedChanges.partition(groups, 3));
+    }
+
+    @Test
+    public void partitionNeverSplitsAGroup() {
+        // The two paths of a rename
+        List<List<String>> groups = Arrays.asList(Arrays.asList("a"), Arrays.asList("old", "new"), Arrays.asList("b"));
+
+        assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("old", "new"), Arrays.asList("b")),
+                SelectedChanges.partition(groups, 2));
+    }
+
+    @Test
+    public void partitionGivesAnOversizedGroupAChunkOfItsOwn() {
+        List<List<Integer>> groups = Arrays.asList(Arrays.asList(1), Arrays.asList(2, 3, 4), Arrays.asList(5));
+
+        assertEquals(Arrays.asList(Arrays.asList(1), Arrays.asList(2, 3, 4), Arrays.asList(5)),
+                SelectedChanges.partition(groups, 2));
+    }
+
+    @Test
+    public void partitionOfNothingIsEmpty() {
+        assertEquals(Collections.emptyList(), SelectedChanges.partition(Collections.<List<Integer>>emptyList(), 2));
+    }
+}
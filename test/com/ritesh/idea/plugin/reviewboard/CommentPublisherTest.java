@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommentPublisherTest {
+
+    @Test
+    public void failuresToConnectAreRetried() {
+        assertTrue(CommentPublisher.isTransient(new ConnectException("Connection refused")));
+        assertTrue(CommentPublisher.isTransient(new ConnectTimeoutException("Connect timed out")));
+    }
+
+    @Test
+    public void failuresAfterTheRequestWasSentAreNotRetried() {
+        // The server may have created the comment already
+        assertFalse(CommentPublisher.isTransient(new NoHttpResponseException("The target server failed to respond")));
+        assertFalse(CommentPublisher.isTransient(new SocketTimeoutException("Read timed out")));
+        assertFalse(CommentPublisher.isTransient(new IOException("Broken pipe")));
+        assertFalse(CommentPublisher.isTransient(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrefixIndexTest {
+    private PrefixIndex index;
+
+    @Before
+    public void setUp() {
+        index = new PrefixIndex.Builder()
+                .add("jdoe", "jdoe", "John", "Doe")
+                .add("jsmith", "jsmith", "Jane", "Smith")
+                .add("admin", "admin", null, " ")
+                .build();
+    }
+
+    @Test
+    public void prefixMatchesAnyTermIgnoringCase() {
+        // In the order of the matching terms: jane, jdoe, john, jsmith
+        assertEquals(Arrays.asList("jsmith", "jdoe"), index.prefix("J", 10));
+        assertEquals(Collections.singletonList("jsmith"), index.prefix("smi", 10));
+        assertEquals(Collections.<String>emptyList(), index.prefix("x", 10));
+    }
+
+    @Test
+    public void prefixListsEachValueOnce() {
+        assertEquals(Collections.singletonList("jdoe"), index.prefix("jdoe", 10));
+        assertEquals(Collections.singletonList("jdoe"), index.prefix("do", 10));
+    }
+
+    @Test
+    public void prefixStopsAtTheLimit() {
+        assertEquals(1, index.prefix("j", 1).size());
+    }
+
+    @Test
+    public void fuzzyToleratesTypos() {
+        assertEquals(Collections.singletonList("jsmith"), index.fuzzy("smoth", 1, 10));
+        assertEquals(Collections.singletonList("jsmith"), index.fuzzy("smth", 1, 10));
+        assertEquals(Collections.singletonList("admin"), index.fuzzy("amdin", 2, 10));
+    }
+
+    @Test
+    public void fuzzyMatchesPrefixes() {
+        assertEquals(Collections.singletonList("jsmith"), index.fuzzy("smo", 1, 10));
+        assertTrue(index.fuzzy("jdo", 1, 10).contains("jdoe"));
+    }
+
+    @Test
+    public void fuzzyRejectsTooDistantTerms() {
+        assertEquals(Collections.<String>emptyList(), index.fuzzy("xyzzy", 1, 10));
+    }
+
+    @Test
+    public void fuzzyRejectsQueriesNoLongerThanTheDistance() {
+        assertEquals(Collections.<String>emptyList(), index.fuzzy("j", 1, 10));
+    }
+
+    @Test
+    public void nullValuesAreSkipped() {
+        assertEquals(3, index.size());
+        assertEquals(0, new PrefixIndex.Builder().add(null, "term").build().size());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.reviewboard;
+
+import com.ritesh.idea.plugin.util.Page;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReviewListStoreTest {
+
+    @Test
+    public void resetSetsTheWatermarkToTheNewestUpdate() {
+        ReviewListStore store = new ReviewListStore("pending", 3);
+        assertNull(store.watermark());
+        store.reset(page(5, review("1", "pending", 10), review("2", "pending", 30), review("3", "pending", 20)));
+        assertEquals(new Date(30), store.watermark());
+    }
+
+    @Test
+    public void mergeMovesUpdatedReviewsToTheTop() {
+        ReviewListStore store = new ReviewListStore("pending", 3);
+        store.reset(page(5, review("3", "pending", 30), review("2", "pending", 20), review("1", "pending", 10)));
+
+        assertTrue(store.merge(Arrays.asList(review("1", "pending", 40), review("4", "pending", 50)), 6));
+
+        assertEquals(Arrays.asList("4", "1", "3"), ids(store.page()));
+        assertEquals(6, store.page().getTotal());
+        assertEquals(new Date(50), store.watermark());
+    }
+
+    @Test
+    public void mergeDropsReviewsThatLeftTheStatus() {
+        ReviewListStore store = new ReviewListStore("pending", 3);
+        store.reset(page(3, review("3", "pending", 30), review("2", "pending", 20), review("1", "pending", 10)));
+
+        assertTrue(store.merge(Arrays.asList(review("2", "submitted", 40)), 2));
+
+        assertEquals(Arrays.asList("3", "1"), ids(store.page()));
+    }
+
+    @Test
+    public void mergeKeepsEveryStatusOfTheAllList() {
+        ReviewListStore store = new ReviewListStore("all", 3);
+        store.reset(page(2, review("2", "pending", 20), review("1", "pending", 10)));
+
+        assertTrue(store.merge(Arrays.asList(review("1", "discarded", 40)), 2));
+
+        assertEquals(Arrays.asList("1", "2"), ids(store.page()));
+    }
+
+    @Test
+    public void mergeAsksForAReloadWhenThePageCanNotBeRefilled() {
+        ReviewListStore store = new ReviewListStore("pending", 2);
+        store.reset(page(3, review("2", "pending", 20), review("1", "pending", 10)));
+
+        assertFalse(store.merge(Arrays.asList(review("2", "submitted", 40)), 2));
+        // The page is left as it was
+        assertEquals(Arrays.asList("2", "1"), ids(store.page()));
+    }
+
+    private static Page<Review> page(int total, Review... reviews) {
+        return new Page<>(new ArrayList<>(Arrays.asList(reviews)), 0, reviews.length, total);
+    }
+
+    private static Review review(String id, String status, long lastUpdated) {
+        Review review = new Review();
+        review.id = id;
+        review.status = status;
+        review.lastUpdated = new Date(lastUpdated);
+        return review;
+    }
+
+    private static List<String> ids(Page<Review> page) {
+        List<String> ids = new ArrayList<>();
+        for (Review review : page.getResult()) ids.add(review.id);
+        return ids;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 The review-board-idea-plugin contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ritesh.idea.plugin.util;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class SessionAuthenticatorTest {
+    private BasicCookieStore cookieStore;
+    private SessionAuthenticator authenticator;
+
+    @Before
+    public void setUp() {
+        cookieStore = new BasicCookieStore();
+        authenticator = new SessionAuthenticator("user", "secret", cookieStore);
+    }
+
+    @Test
+    public void basicEncodesTheCredentials() {
+        assertEquals("Basic dXNlcjpzZWNyZXQ=", SessionAuthenticator.basic("user", "secret"));
+    }
+
+    @Test
+    public void credentialsAreSentUntilASessionStarts() {
+        HttpGet first = prepared();
+        assertTrue(first.containsHeader(HttpHeaders.AUTHORIZATION));
+        assertFalse(authenticator.expired(first, response(HttpStatus.SC_OK)));
+
+        // No session cookie came back
+        assertTrue(prepared().containsHeader(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    public void credentialsAreLeftOutOnceASessionStarted() {
+        HttpGet first = prepared();
+        cookieStore.addCookie(new BasicClientCookie(SessionAuthenticator.SESSION_COOKIE, "abc"));
+        assertFalse(authenticator.expired(first, response(HttpStatus.SC_OK)));
+
+        HttpGet second = prepared();
+        assertFalse(second.containsHeader(HttpHeaders.AUTHORIZATION));
+        assertFalse(authenticator.expired(second, response(HttpStatus.SC_OK)));
+    }
+
+    @Test
+    public void expiredCookieStartsNoSession() {
+        HttpGet first = prepared();
+        BasicClientCookie cookie = new BasicClientCookie(SessionAuthenticator.SESSION_COOKIE, "abc");
+        cookie.setExpiryDate(new Date(System.currentTimeMillis() - 1000));
+        cookieStore.addCookie(cookie);
+        authenticator.expired(first, response(HttpStatus.SC_OK));
+
+        assertTrue(prepared().containsHeader(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    public void requestRejectedWithoutCredentialsIsResent() {
+        HttpGet first = prepared();
+        cookieStore.addCookie(new BasicClientCookie(SessionAuthenticator.SESSION_COOKIE, "abc"));
+        authenticator.expired(first, response(HttpStatus.SC_OK));
+
+        HttpGet second = prepared();
+        assertTrue(authenticator.expired(second, response(HttpStatus.SC_UNAUTHORIZED)));
+        // Back to sending the credentials
+        assertTrue(prepared().containsHeader(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    public void requestRejectedWithCredentialsIsNotResent() {
+        assertFalse(authenticator.expired(prepared(), response(HttpStatus.SC_UNAUTHORIZED)));
+    }
+
+    private HttpGet prepared() {
+        HttpGet request = new HttpGet("http://localhost/api/");
+        authenticator.prepare(request);
+        return request;
+    }
+
+    private static HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    }
+}